@@ -0,0 +1,36 @@
+package com.example.uavbackend.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.activemq.artemis.core.config.Configuration;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * In-JVM Artemis with a STOMP acceptor, so the broker relay can be tried locally without installing
+ * a broker: one instance runs with this profile, any others just point {@code
+ * websocket.broker.relay.addresses} at it. Non-persistent and without security; not for production.
+ */
+@Slf4j
+@org.springframework.context.annotation.Configuration
+@Profile("embedded-broker")
+public class EmbeddedStompBrokerConfig {
+
+  @Bean(initMethod = "start", destroyMethod = "stop")
+  public EmbeddedActiveMQ embeddedStompBroker(
+      @Value("${websocket.broker.embedded.port:61613}") int port) throws Exception {
+    Configuration config = new ConfigurationImpl();
+    config.setPersistenceEnabled(false);
+    config.setSecurityEnabled(false);
+    config.setJMXManagementEnabled(false);
+    // /topic maps to multicast addresses, /queue (user destinations) to anycast
+    config.addAcceptorConfiguration(
+        "stomp", "tcp://0.0.0.0:" + port + "?protocols=STOMP;anycastPrefix=/queue/;multicastPrefix=/topic/");
+    EmbeddedActiveMQ broker = new EmbeddedActiveMQ();
+    broker.setConfiguration(config);
+    log.info("Embedded STOMP broker configured on port {}", port);
+    return broker;
+  }
+}
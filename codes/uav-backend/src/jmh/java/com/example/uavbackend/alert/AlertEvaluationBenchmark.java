@@ -0,0 +1,62 @@
+package com.example.uavbackend.alert;
+
+import com.example.uavbackend.telemetry.TelemetryFrame;
+import com.example.uavbackend.telemetry.TelemetryFrames;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Matching a compiled alert rule against one frame; no condition fires, so every one is checked. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AlertEvaluationBenchmark {
+  @Param({"AND", "OR"})
+  public String logic;
+
+  @Param({"3", "10"})
+  public int conditions;
+
+  private CompiledAlertRule rule;
+  private TelemetryFrame frame;
+
+  @Setup
+  public void setup() {
+    frame = TelemetryFrames.frame("UAV-001", 30.27, 120.15, 80, 20);
+    AlertRule alertRule = new AlertRule();
+    alertRule.setId(1L);
+    alertRule.setLogicOperator(logic);
+    List<AlertRuleCondition> list = new ArrayList<>();
+    String[] comparators = {"gt", "GTE", "LT", "lte"};
+    for (int i = 0; i < conditions; i++) {
+      AlertRuleCondition c = new AlertRuleCondition();
+      c.setMetricCode("metric" + (i * 2));
+      c.setComparator(comparators[i % comparators.length]);
+      // AND: all but the last condition hold; OR: none holds
+      boolean holds = "AND".equals(logic) && i < conditions - 1;
+      boolean greater = i % comparators.length < 2;
+      c.setThreshold(holds == greater ? -1e6 : 1e6);
+      list.add(c);
+    }
+    rule = CompiledAlertRule.compile(alertRule, list);
+  }
+
+  @Benchmark
+  public CompiledAlertRule.Condition match() {
+    return rule.match(frame);
+  }
+}
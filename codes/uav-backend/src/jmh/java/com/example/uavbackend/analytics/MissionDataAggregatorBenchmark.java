@@ -0,0 +1,49 @@
+package com.example.uavbackend.analytics;
+
+import com.example.uavbackend.mission.Mission;
+import com.example.uavbackend.telemetry.TelemetryFrame;
+import com.example.uavbackend.telemetry.TelemetryFrames;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Per-frame statistics update for a running mission. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MissionDataAggregatorBenchmark {
+  @Param({"5", "50", "500"})
+  public int metrics;
+
+  private MissionDataAggregator aggregator;
+  private Mission mission;
+  private TelemetryFrame frame;
+
+  @Setup
+  public void setup() {
+    // ingest never touches the mapper; it is only used when a mission completes
+    aggregator = new MissionDataAggregator(null);
+    mission = new Mission();
+    mission.setMissionCode("M-BENCH");
+    mission.setPilotName("bench");
+    mission.setMissionType("SURVEY");
+    frame = TelemetryFrames.frame("UAV-001", 30.27, 120.15, 80, metrics);
+  }
+
+  @Benchmark
+  public void ingest() {
+    aggregator.ingest(mission, "UAV-001", frame);
+  }
+}
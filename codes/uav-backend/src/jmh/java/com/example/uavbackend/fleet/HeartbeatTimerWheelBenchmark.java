@@ -0,0 +1,58 @@
+package com.example.uavbackend.fleet;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * One 100 ms heartbeat tick on a simulated clock with a 5 s timeout. Every UAV stays alive, so the
+ * due bucket (about 1/50 of the fleet) is rescheduled rather than expired.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HeartbeatTimerWheelBenchmark {
+  private static final long TICK_MS = 100;
+
+  @Param({"5000", "50000"})
+  public int uavs;
+
+  private HeartbeatTimerWheel wheel;
+  private HeartbeatTimerWheel.Node[] nodes;
+  private long now;
+
+  @Setup
+  public void setup() {
+    now = 1_000_000;
+    wheel = new HeartbeatTimerWheel(512, TICK_MS, now);
+    nodes = new HeartbeatTimerWheel.Node[uavs];
+    for (int i = 0; i < uavs; i++) {
+      nodes[i] = new HeartbeatTimerWheel.Node("UAV-" + i, 5000);
+      // last refresh before the start, matching the refresh pattern below
+      nodes[i].lastSeen = now - ((50 - i % 50) % 50) * TICK_MS;
+      wheel.schedule(nodes[i]);
+    }
+  }
+
+  @Benchmark
+  public void advanceOneTick(Blackhole blackhole) {
+    now += TICK_MS;
+    for (int i = (int) (now / TICK_MS % 50); i < nodes.length; i += 50) {
+      nodes[i].lastSeen = now;
+    }
+    wheel.advance(now, blackhole::consume);
+  }
+}
@@ -0,0 +1,48 @@
+package com.example.uavbackend.fleet;
+
+import com.example.uavbackend.telemetry.TelemetryFrames;
+import com.example.uavbackend.telemetry.TelemetrySnapshotStore;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/** Fleet-wide uavCode → payload mapping used by the REST and WebSocket readers. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TelemetrySnapshotBenchmark {
+  @Param({"100", "1000"})
+  public int uavs;
+
+  private TelemetryService telemetryService;
+
+  @Setup
+  public void setup() {
+    TelemetrySnapshotStore store = new TelemetrySnapshotStore();
+    // frames are built once, so keep them fresh for the whole run
+    ReflectionTestUtils.setField(store, "ttlMs", Long.MAX_VALUE);
+    for (int i = 0; i < uavs; i++) {
+      store.put(TelemetryFrames.frame(String.format("UAV-%04d", i), 30 + i * 1e-3, 120 + i * 1e-3, 80, 5));
+    }
+    telemetryService = new TelemetryService(store, null, null);
+  }
+
+  @Benchmark
+  public Map<String, String> readAllTelemetry() {
+    return telemetryService.readAllTelemetry();
+  }
+}
@@ -0,0 +1,58 @@
+package com.example.uavbackend.mission;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Raw {@link HungarianSolver} on square matrices; the target for 500×500 is under 50 ms. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HungarianSolverBenchmark {
+  @Param({"100", "500"})
+  public int size;
+
+  /** {@code dense}: every pair allowed; {@code sparse}: 8 allowed UAVs per mission, as in dispatch. */
+  @Param({"dense", "sparse"})
+  public String shape;
+
+  private double[][] cost;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(42);
+    cost = new double[size][size];
+    for (double[] row : cost) {
+      if ("dense".equals(shape)) {
+        for (int j = 0; j < size; j++) {
+          row[j] = random.nextDouble() * 100;
+        }
+      } else {
+        Arrays.fill(row, HungarianAssignmentStrategy.FORBIDDEN);
+        for (int c = 0; c < 8; c++) {
+          row[random.nextInt(size)] = random.nextDouble() * 100;
+        }
+      }
+    }
+  }
+
+  @Benchmark
+  public int[] solve() {
+    // the solver does not modify its input
+    return HungarianSolver.solve(cost);
+  }
+}
@@ -0,0 +1,101 @@
+package com.example.uavbackend.mission;
+
+import com.example.uavbackend.telemetry.TelemetryFrames;
+import com.example.uavbackend.telemetry.TelemetrySnapshotStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * One dispatch pass over the queue head: decoding the items read from Redis and matching them to
+ * ready UAVs with each {@link MissionAssignmentStrategy}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MissionDispatchBenchmark {
+  @Param({"50", "200", "500"})
+  public int missions;
+
+  /** Candidate UAVs listed per mission. */
+  @Param({"8"})
+  public int candidates;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private List<String> itemJson;
+  private List<MissionQueueItem> items;
+  private MissionAssignmentStrategy greedy;
+  private MissionAssignmentStrategy hungarian;
+
+  @Setup
+  public void setup() throws Exception {
+    Random random = new Random(42);
+    int fleet = missions;
+    TelemetrySnapshotStore store = new TelemetrySnapshotStore();
+    ReflectionTestUtils.setField(store, "ttlMs", Long.MAX_VALUE);
+    for (int i = 0; i < fleet; i++) {
+      store.put(TelemetryFrames.frame(uav(i), 30 + random.nextDouble(), 120 + random.nextDouble(), 20 + random.nextInt(80), 0));
+    }
+    String[] priorities = {"HIGH", "MEDIUM", "LOW"};
+    items = new ArrayList<>(missions);
+    itemJson = new ArrayList<>(missions);
+    for (int i = 0; i < missions; i++) {
+      List<String> uavCodes = new ArrayList<>(candidates);
+      for (int c = 0; c < candidates; c++) {
+        uavCodes.add(uav(random.nextInt(fleet)));
+      }
+      List<List<Double>> route =
+          List.of(List.of(30 + random.nextDouble(), 120 + random.nextDouble()), List.of(30.5, 120.5));
+      MissionQueueItem item = new MissionQueueItem();
+      item.setMissionCode("M-" + i);
+      item.setUavCodes(uavCodes);
+      item.setRoute(route);
+      item.setPriority(priorities[i % 3]);
+      item.setEnqueuedAt(1_700_000_000_000L + i);
+      items.add(item);
+      itemJson.add(objectMapper.writeValueAsString(item));
+    }
+    greedy = new GreedyAssignmentStrategy();
+    hungarian = new HungarianAssignmentStrategy(store, 10, 100, 50);
+  }
+
+  private static String uav(int i) {
+    return String.format("UAV-%04d", i);
+  }
+
+  @Benchmark
+  public List<MissionQueueItem> decodeQueueHead() throws Exception {
+    List<MissionQueueItem> result = new ArrayList<>(itemJson.size());
+    for (String json : itemJson) {
+      result.add(objectMapper.readValue(json, MissionQueueItem.class));
+    }
+    return result;
+  }
+
+  @Benchmark
+  public List<MissionAssignmentStrategy.Assignment> assignGreedy() {
+    return greedy.assign(items, u -> true);
+  }
+
+  @Benchmark
+  public List<MissionAssignmentStrategy.Assignment> assignHungarian() {
+    return hungarian.assign(items, u -> true);
+  }
+}
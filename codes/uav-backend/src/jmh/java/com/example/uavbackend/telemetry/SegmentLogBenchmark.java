@@ -0,0 +1,116 @@
+package com.example.uavbackend.telemetry;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Appender-thread cost of the telemetry segment log: ~300 byte JSON frames from 1000 UAVs into
+ * 128 MiB segments, published every 4096 records like the appender's drain batches, sealing and
+ * rolling when a segment fills. {@code readOneUav} replays one UAV's minute out of a full segment.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SegmentLogBenchmark {
+  private static final int SEGMENT_BYTES = 128 << 20;
+  private static final int BLOCK_BYTES = 64 << 10;
+  private static final int UAVS = 1000;
+
+  private final CRC32 crc = new CRC32();
+  private Path dir;
+  private String[] uavCodes;
+  private byte[][] codes;
+  private byte[] payload;
+  private LogSegment segment;
+  private LogSegment full;
+  private long segmentId;
+  private long now;
+  private int next;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    dir = Files.createTempDirectory("segment-log-bench");
+    uavCodes = new String[UAVS];
+    codes = new byte[UAVS][];
+    for (int i = 0; i < UAVS; i++) {
+      uavCodes[i] = "UAV-" + i;
+      codes[i] = uavCodes[i].getBytes(StandardCharsets.UTF_8);
+    }
+    payload =
+        ("{\"uavCode\":\"UAV-1\",\"seq\":1024,\"msgId\":\"0f6c2d1e\",\"status\":\"FLYING\",\"missionId\":\"M-7\","
+                + "\"lat\":30.572815,\"lng\":104.066801,\"alt\":120.5,\"battery\":87.2,\"speed\":11.4,"
+                + "\"data\":{\"temperature\":23.41,\"humidity\":61.2,\"pm25\":35.7,\"pm10\":52.1,"
+                + "\"windSpeed\":4.6,\"pressure\":1012.3}}")
+            .getBytes(StandardCharsets.UTF_8);
+    now = 1_700_000_000_000L;
+    full = LogSegment.create(dir.resolve("full" + LogSegment.SUFFIX), SEGMENT_BYTES, BLOCK_BYTES);
+    // one frame per UAV per second, like a live fleet
+    for (int i = 0; full.append(uavCodes[i % UAVS], codes[i % UAVS], now + i / UAVS * 1000L, payload, crc); i++) {}
+    full.seal();
+    segment = roll();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    try (var files = Files.list(dir)) {
+      for (Path file : files.toList()) {
+        Files.deleteIfExists(file);
+      }
+    }
+    Files.deleteIfExists(dir);
+  }
+
+  @Benchmark
+  public void append() throws IOException {
+    int uav = next++ % UAVS;
+    if (!segment.append(uavCodes[uav], codes[uav], now++, payload, crc)) {
+      segment.seal();
+      segment.retire();
+      segment = roll();
+      segment.append(uavCodes[uav], codes[uav], now, payload, crc);
+    }
+    if ((next & 4095) == 0) {
+      segment.publish();
+    }
+  }
+
+  @Benchmark
+  public int readOneUav(Blackhole blackhole) {
+    int[] count = {0};
+    full.read(
+        uavCodes[7],
+        codes[7],
+        now + 60_000,
+        now + 120_000,
+        (ts, slice) -> {
+          blackhole.consume(slice);
+          count[0]++;
+          return true;
+        });
+    return count[0];
+  }
+
+  private LogSegment roll() throws IOException {
+    return LogSegment.create(dir.resolve(segmentId++ + LogSegment.SUFFIX), SEGMENT_BYTES, BLOCK_BYTES);
+  }
+}
@@ -0,0 +1,67 @@
+package com.example.uavbackend.telemetry;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Decoding one simulator telemetry message, against the former decode-into-a-Map baseline. The
+ * byte variants are what the MQTT path runs: raw message bytes, JSON or CBOR.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TelemetryDecodeBenchmark {
+  static final String PAYLOAD =
+      "{\"uavCode\":\"UAV-001\",\"missionId\":\"M-20240101-001\",\"status\":\"EXECUTING\","
+          + "\"lat\":30.2741,\"lng\":120.1551,\"battery\":87.5,\"sensors\":\"TEMP,HUM,PM25\","
+          + "\"data\":{\"temperature\":23.4,\"humidity\":61.2,\"pm25\":\"35\",\"windSpeed\":3.1,\"note\":\"ok\"},"
+          + "\"ts\":1704067200000}";
+
+  private final TelemetryFrameDecoder decoder = new TelemetryFrameDecoder();
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final byte[] jsonBytes = PAYLOAD.getBytes(StandardCharsets.UTF_8);
+  private byte[] cborBytes;
+
+  @Setup
+  public void setup() throws Exception {
+    decoder.decode("UAV-001", PAYLOAD);
+    cborBytes = new ObjectMapper(new CBORFactory()).writeValueAsBytes(objectMapper.readTree(PAYLOAD));
+  }
+
+  @Benchmark
+  public TelemetryFrame decodeFrame() {
+    return decoder.decode("UAV-001", PAYLOAD, 0L);
+  }
+
+  @Benchmark
+  public TelemetryFrame decodeJsonBytes() {
+    return decoder.decode("UAV-001", jsonBytes, 0L);
+  }
+
+  @Benchmark
+  public TelemetryFrame decodeCborBytes() {
+    return decoder.decode("UAV-001", cborBytes, 0L);
+  }
+
+  @Benchmark
+  public Map<String, Object> decodeToMapBaseline() throws Exception {
+    return objectMapper.readValue(PAYLOAD, new TypeReference<Map<String, Object>>() {});
+  }
+}
@@ -0,0 +1,23 @@
+package com.example.uavbackend.telemetry;
+
+/** Builds decoded frames for benchmarks in other packages. */
+public final class TelemetryFrames {
+  private static final TelemetryFrameDecoder DECODER = new TelemetryFrameDecoder();
+
+  private TelemetryFrames() {}
+
+  /** An EXECUTING frame at the given position carrying {@code metrics} numeric data fields. */
+  public static TelemetryFrame frame(String uavCode, double lat, double lng, double battery, int metrics) {
+    StringBuilder json = new StringBuilder(64 + metrics * 24);
+    json.append("{\"uavCode\":\"").append(uavCode).append("\",\"status\":\"EXECUTING\",\"lat\":").append(lat)
+        .append(",\"lng\":").append(lng).append(",\"battery\":").append(battery).append(",\"data\":{");
+    for (int i = 0; i < metrics; i++) {
+      if (i > 0) {
+        json.append(',');
+      }
+      json.append("\"metric").append(i).append("\":").append(i * 1.5);
+    }
+    json.append("}}");
+    return DECODER.decode(uavCode, json.toString(), System.currentTimeMillis());
+  }
+}
@@ -0,0 +1,49 @@
+package com.example.uavbackend.alert;
+
+/** Comparators an {@link AlertRuleCondition} may use. */
+public enum AlertComparator {
+  GT {
+    @Override
+    public boolean test(double value, double threshold) {
+      return value > threshold;
+    }
+  },
+  GTE {
+    @Override
+    public boolean test(double value, double threshold) {
+      return value >= threshold;
+    }
+  },
+  LT {
+    @Override
+    public boolean test(double value, double threshold) {
+      return value < threshold;
+    }
+  },
+  LTE {
+    @Override
+    public boolean test(double value, double threshold) {
+      return value <= threshold;
+    }
+  },
+  EQ {
+    @Override
+    public boolean test(double value, double threshold) {
+      return value == threshold;
+    }
+  };
+
+  public abstract boolean test(double value, double threshold);
+
+  /** Case-insensitive lookup; {@code null} for a blank or unknown comparator. */
+  public static AlertComparator parse(String comparator) {
+    if (comparator == null || comparator.isBlank()) {
+      return null;
+    }
+    try {
+      return valueOf(comparator.trim().toUpperCase());
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+}
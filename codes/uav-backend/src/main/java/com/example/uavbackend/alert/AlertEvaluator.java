@@ -0,0 +1,199 @@
+package com.example.uavbackend.alert;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.example.uavbackend.telemetry.TelemetryFrame;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Evaluates a mission's alert rule against telemetry frames. Rules come from {@link AlertRuleCache};
+ * whether a rule already has an unprocessed record for a mission is remembered in memory, so the
+ * database is only touched when an alert actually fires.
+ *
+ * <p>{@link #evaluate} runs on the ingest thread and never blocks: a rule that is not cached yet is
+ * loaded, and a match is checked against open records and persisted, on a single {@code
+ * alert-writer} thread. At most one such task per rule/mission is outstanding.
+ */
+@Slf4j
+@Component
+public class AlertEvaluator {
+  private static final long LOAD_RETRY_MS = 5000;
+
+  private final AlertRuleCache ruleCache;
+  private final AlertRecordMapper recordMapper;
+  private final ThreadPoolExecutor executor;
+  private final Counter rejected;
+
+  /** "ruleId:missionCode" → whether an unprocessed record exists, filled on first match. */
+  private final Map<String, Boolean> openAlerts = new ConcurrentHashMap<>();
+  /** Rule loads and rule/mission checks queued on the writer thread. */
+  private final Set<Long> loading = ConcurrentHashMap.newKeySet();
+  private final Map<Long, Long> loadRetryAt = new ConcurrentHashMap<>();
+  private final Set<String> persisting = ConcurrentHashMap.newKeySet();
+  /** Bumped by every forget, so a check that read the database before it does not cache the result. */
+  private final AtomicLong forgets = new AtomicLong();
+
+  public AlertEvaluator(
+      AlertRuleCache ruleCache,
+      AlertRecordMapper recordMapper,
+      MeterRegistry meterRegistry,
+      @Value("${alert.writer.queue-capacity:10000}") int queueCapacity) {
+    this.ruleCache = ruleCache;
+    this.recordMapper = recordMapper;
+    this.executor =
+        new ThreadPoolExecutor(
+            1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(Math.max(queueCapacity, 1)),
+            runnable -> {
+              Thread thread = new Thread(runnable, "alert-writer");
+              thread.setDaemon(true);
+              return thread;
+            });
+    this.rejected = meterRegistry.counter("alert.writer.rejected");
+  }
+
+  public void evaluate(String uavCode, String missionCode, Long ruleId, TelemetryFrame frame) {
+    if (ruleId == null) {
+      return;
+    }
+    CompiledAlertRule rule = ruleCache.peek(ruleId);
+    if (rule == null) {
+      Long retryAt = loadRetryAt.get(ruleId);
+      if ((retryAt == null || frame.receivedAt() >= retryAt) && loading.add(ruleId) && !submit(() -> load(ruleId))) {
+        loading.remove(ruleId);
+      }
+      return;
+    }
+    CompiledAlertRule.Condition matched = rule.match(frame);
+    if (matched == null) {
+      return;
+    }
+    String key = key(ruleId, missionCode);
+    // 防止重复刷：若已存在未处理的同规则、同任务记录则跳过
+    if (Boolean.TRUE.equals(openAlerts.get(key)) || !persisting.add(key)) {
+      return;
+    }
+    AlertRecord record = new AlertRecord();
+    record.setRuleId(ruleId);
+    record.setMissionCode(missionCode);
+    record.setUavCode(uavCode);
+    record.setMetricCode(matched.metricCode());
+    record.setMetricValue(matched.slot() < 0 ? 0 : frame.metric(matched.slot(), 0));
+    record.setTriggeredAt(LocalDateTime.now());
+    record.setProcessed(false);
+    if (!submit(() -> persist(key, record))) {
+      persisting.remove(key);
+    }
+  }
+
+  /** Runs on the writer thread; a failed load is retried by a frame after {@link #LOAD_RETRY_MS}. */
+  private void load(Long ruleId) {
+    try {
+      ruleCache.get(ruleId);
+      loadRetryAt.remove(ruleId);
+    } catch (Exception e) {
+      loadRetryAt.put(ruleId, System.currentTimeMillis() + LOAD_RETRY_MS);
+      log.warn("Loading alert rule {} failed; retrying in {} ms", ruleId, LOAD_RETRY_MS, e);
+    } finally {
+      loading.remove(ruleId);
+    }
+  }
+
+  /** Runs on the writer thread. */
+  private void persist(String key, AlertRecord record) {
+    try {
+      Boolean open = openAlerts.get(key);
+      if (open == null) {
+        long generation = forgets.get();
+        open = hasOpenRecord(record.getRuleId(), record.getMissionCode());
+        if (open && generation == forgets.get()) {
+          openAlerts.put(key, true);
+        }
+      }
+      if (open) {
+        return;
+      }
+      recordMapper.insert(record);
+      openAlerts.put(key, true);
+      log.info("Alert triggered rule={} mission={} uav={} metric={}",
+          record.getRuleId(), record.getMissionCode(), record.getUavCode(), record.getMetricCode());
+    } catch (Exception e) {
+      log.warn("Persisting alert failed rule={} mission={}", record.getRuleId(), record.getMissionCode(), e);
+    } finally {
+      persisting.remove(key);
+    }
+  }
+
+  private boolean submit(Runnable task) {
+    try {
+      executor.execute(task);
+      return true;
+    } catch (RejectedExecutionException e) {
+      rejected.increment();
+      return false;
+    }
+  }
+
+  /**
+   * Forget what is known about a rule/mission pair; the next match re-checks the database. Inside a
+   * transaction this happens again after completion, so a match evaluated before the commit cannot
+   * keep the pre-commit state.
+   */
+  public void forget(Long ruleId, String missionCode) {
+    String key = key(ruleId, missionCode);
+    runNowAndAfterCompletion(() -> openAlerts.remove(key));
+  }
+
+  public void forgetRule(Long ruleId) {
+    String prefix = ruleId + ":";
+    runNowAndAfterCompletion(() -> openAlerts.keySet().removeIf(k -> k.startsWith(prefix)));
+  }
+
+  private void runNowAndAfterCompletion(Runnable forget) {
+    forgets.incrementAndGet();
+    forget.run();
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+              forgets.incrementAndGet();
+              forget.run();
+            }
+          });
+    }
+  }
+
+  private boolean hasOpenRecord(Long ruleId, String missionCode) {
+    Long count =
+        recordMapper.selectCount(
+            new LambdaQueryWrapper<AlertRecord>()
+                .eq(AlertRecord::getRuleId, ruleId)
+                .eq(AlertRecord::getMissionCode, missionCode)
+                .eq(AlertRecord::getProcessed, false));
+    return count != null && count > 0;
+  }
+
+  private static String key(Long ruleId, String missionCode) {
+    return ruleId + ":" + missionCode;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdown();
+  }
+}
@@ -0,0 +1,56 @@
+package com.example.uavbackend.alert;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/** Compiled alert rules by id, loaded on first use and dropped whenever a rule is edited. */
+@Component
+@RequiredArgsConstructor
+public class AlertRuleCache {
+  private final AlertRuleMapper ruleMapper;
+  private final AlertRuleConditionMapper conditionMapper;
+
+  private final Map<Long, CompiledAlertRule> rules = new ConcurrentHashMap<>();
+
+  public CompiledAlertRule get(long ruleId) {
+    return rules.computeIfAbsent(ruleId, this::load);
+  }
+
+  /** The rule if it is already loaded; never touches the database. */
+  public CompiledAlertRule peek(long ruleId) {
+    return rules.get(ruleId);
+  }
+
+  /**
+   * Drops a rule now and, inside a transaction, again after commit so a reader cannot re-cache the
+   * pre-commit version.
+   */
+  public void invalidate(long ruleId) {
+    rules.remove(ruleId);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+              rules.remove(ruleId);
+            }
+          });
+    }
+  }
+
+  private CompiledAlertRule load(long ruleId) {
+    AlertRule rule = ruleMapper.selectById(ruleId);
+    if (rule == null) {
+      return CompiledAlertRule.missing(ruleId);
+    }
+    return CompiledAlertRule.compile(
+        rule,
+        conditionMapper.selectList(
+            new LambdaQueryWrapper<AlertRuleCondition>().eq(AlertRuleCondition::getRuleId, ruleId)));
+  }
+}
@@ -21,6 +21,8 @@ public class AlertService {
   private final AlertRuleMapper ruleMapper;
   private final AlertRuleConditionMapper conditionMapper;
   private final AlertRecordMapper recordMapper;
+  private final AlertRuleCache ruleCache;
+  private final AlertEvaluator alertEvaluator;
 
   public List<AlertRuleDto> listRules() {
     List<AlertRule> rules = ruleMapper.selectList(new LambdaQueryWrapper<>());
@@ -61,6 +63,7 @@ public class AlertService {
         conditionMapper.insert(cond);
       }
     }
+    ruleCache.invalidate(rule.getId());
     return toDto(rule, 0);
   }
 
@@ -86,6 +89,7 @@ public class AlertService {
         conditionMapper.insert(cond);
       }
     }
+    ruleCache.invalidate(ruleId);
     return toDto(rule, unreadCount(ruleId));
   }
 
@@ -94,6 +98,8 @@ public class AlertService {
     conditionMapper.delete(new LambdaQueryWrapper<AlertRuleCondition>().eq(AlertRuleCondition::getRuleId, ruleId));
     recordMapper.delete(new LambdaQueryWrapper<AlertRecord>().eq(AlertRecord::getRuleId, ruleId));
     ruleMapper.deleteById(ruleId);
+    ruleCache.invalidate(ruleId);
+    alertEvaluator.forgetRule(ruleId);
   }
 
   @Transactional
@@ -103,6 +109,7 @@ public class AlertService {
     record.setProcessed(true);
     record.setProcessedAt(LocalDateTime.now());
     recordMapper.updateById(record);
+    alertEvaluator.forget(record.getRuleId(), record.getMissionCode());
   }
 
   private AlertRuleDto toDto(AlertRule rule, int unread) {
@@ -0,0 +1,82 @@
+package com.example.uavbackend.alert;
+
+import com.example.uavbackend.telemetry.MetricKeys;
+import com.example.uavbackend.telemetry.TelemetryFrame;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable, pre-resolved form of an {@link AlertRule} and its conditions. Metric codes are
+ * interned to {@link MetricKeys} slots and comparators parsed once, so evaluating a frame is a few
+ * array reads and comparisons.
+ */
+public final class CompiledAlertRule {
+  /** One condition; a {@code null} comparator never matches, as unknown comparators did before. */
+  public record Condition(String metricCode, int slot, AlertComparator comparator, double threshold) {
+    boolean test(TelemetryFrame frame) {
+      if (comparator == null) {
+        return false;
+      }
+      // a metric the frame does not carry reads as 0
+      double value = slot < 0 ? 0 : frame.metric(slot, 0);
+      return comparator.test(value, threshold);
+    }
+  }
+
+  private final long ruleId;
+  private final boolean and;
+  private final Condition[] conditions;
+
+  private CompiledAlertRule(long ruleId, boolean and, Condition[] conditions) {
+    this.ruleId = ruleId;
+    this.and = and;
+    this.conditions = conditions;
+  }
+
+  public static CompiledAlertRule compile(AlertRule rule, List<AlertRuleCondition> conditions) {
+    List<Condition> compiled = new ArrayList<>(conditions.size());
+    for (AlertRuleCondition c : conditions) {
+      compiled.add(
+          new Condition(
+              c.getMetricCode(),
+              c.getMetricCode() == null ? -1 : MetricKeys.register(c.getMetricCode()),
+              AlertComparator.parse(c.getComparator()),
+              c.getThreshold() == null ? 0 : c.getThreshold()));
+    }
+    return new CompiledAlertRule(
+        rule.getId(), "AND".equalsIgnoreCase(rule.getLogicOperator()), compiled.toArray(new Condition[0]));
+  }
+
+  /** Placeholder for a rule that no longer exists; never matches. */
+  static CompiledAlertRule missing(long ruleId) {
+    return new CompiledAlertRule(ruleId, false, new Condition[0]);
+  }
+
+  public long ruleId() {
+    return ruleId;
+  }
+
+  /**
+   * Condition that fired, or {@code null}: with AND every condition must hold and the first one is
+   * reported, with OR the first holding condition is reported.
+   */
+  public Condition match(TelemetryFrame frame) {
+    if (conditions.length == 0) {
+      return null;
+    }
+    if (and) {
+      for (Condition c : conditions) {
+        if (!c.test(frame)) {
+          return null;
+        }
+      }
+      return conditions[0];
+    }
+    for (Condition c : conditions) {
+      if (c.test(frame)) {
+        return c;
+      }
+    }
+    return null;
+  }
+}
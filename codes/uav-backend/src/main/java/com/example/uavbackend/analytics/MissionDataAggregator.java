@@ -1,6 +1,8 @@
 package com.example.uavbackend.analytics;
 
 import com.example.uavbackend.mission.Mission;
+import com.example.uavbackend.telemetry.MetricKeys;
+import com.example.uavbackend.telemetry.TelemetryFrame;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.time.LocalDateTime;
@@ -46,29 +48,19 @@ public class MissionDataAggregator {
 
   private final Map<String, Agg> cache = new ConcurrentHashMap<>();
 
-  public void ingest(Mission mission, String uavCode, Map<String, Object> data) {
-    if (mission == null || data == null || data.isEmpty()) return;
+  public void ingest(Mission mission, String uavCode, TelemetryFrame frame) {
+    if (mission == null || frame == null || frame.metricCount() == 0) return;
     Agg agg = cache.computeIfAbsent(mission.getMissionCode(), k -> new Agg());
     agg.uavCode = uavCode;
     agg.pilotName = mission.getPilotName();
     agg.operatorName = mission.getPilotName(); // 简化为同 pilotName，可按需调整
     agg.missionType = mission.getMissionType();
-    data.forEach(
-        (k, v) -> {
-          if (v == null) return;
-          double d;
-          if (v instanceof Number n) {
-            d = n.doubleValue();
-          } else {
-            try {
-              d = Double.parseDouble(v.toString());
-            } catch (Exception e) {
-              return;
-            }
-          }
-          Stat s = agg.stats.computeIfAbsent(k, key -> new Stat());
-          s.update(d);
-        });
+    // 非数值字段已在解码时剔除
+    for (int i = 0; i < frame.metricCount(); i++) {
+      String key = MetricKeys.name(frame.metricSlot(i));
+      Stat s = agg.stats.computeIfAbsent(key, k -> new Stat());
+      s.update(frame.metricValue(i));
+    }
   }
 
   public void complete(Mission mission) {
@@ -0,0 +1,71 @@
+package com.example.uavbackend.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times fixed-delay jobs. Per job it records:
+ *
+ * <ul>
+ *   <li>{@code scheduled.job.duration} – how long a run took;
+ *   <li>{@code scheduled.job.lag} – how much later than {@code previous end + interval} it started,
+ *       i.e. time spent waiting for a scheduler thread;
+ *   <li>{@code scheduled.job.overrun} – runs that took longer than their own interval.
+ * </ul>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ScheduledJobMonitor {
+  private final MeterRegistry meterRegistry;
+  private final Map<String, JobMeters> jobs = new ConcurrentHashMap<>();
+
+  private final class JobMeters {
+    final Timer duration;
+    final Timer lag;
+    final Counter overrun;
+    final Counter failures;
+    // only written by the job's own runs, which never overlap for fixed-delay jobs
+    volatile long lastEndNanos;
+
+    JobMeters(String job) {
+      duration = meterRegistry.timer("scheduled.job.duration", "job", job);
+      lag = meterRegistry.timer("scheduled.job.lag", "job", job);
+      overrun = meterRegistry.counter("scheduled.job.overrun", "job", job);
+      failures = meterRegistry.counter("scheduled.job.failures", "job", job);
+    }
+  }
+
+  /** Runs one pass of {@code job}; exceptions are counted and rethrown to the scheduler. */
+  public void run(String job, long intervalMs, Runnable body) {
+    JobMeters meters = jobs.computeIfAbsent(job, JobMeters::new);
+    long start = System.nanoTime();
+    long intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMs);
+    if (meters.lastEndNanos != 0) {
+      meters.lag.record(Math.max(0, start - meters.lastEndNanos - intervalNanos), TimeUnit.NANOSECONDS);
+    }
+    try {
+      body.run();
+    } catch (RuntimeException e) {
+      meters.failures.increment();
+      throw e;
+    } finally {
+      long end = System.nanoTime();
+      long elapsed = end - start;
+      meters.duration.record(elapsed, TimeUnit.NANOSECONDS);
+      meters.lastEndNanos = end;
+      if (elapsed > intervalNanos) {
+        meters.overrun.increment();
+        log.warn("Scheduled job {} overran its {} ms interval: took {} ms", job, intervalMs,
+            TimeUnit.NANOSECONDS.toMillis(elapsed));
+      }
+    }
+  }
+}
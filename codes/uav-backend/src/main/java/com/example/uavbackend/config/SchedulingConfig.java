@@ -0,0 +1,64 @@
+package com.example.uavbackend.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.SimpleAsyncTaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * One scheduler per job class, so a slow dispatch pass (database/MQTT) can no longer hold up the
+ * WebSocket push or telemetry housekeeping. Jobs pick theirs with {@code @Scheduled(scheduler = ...)};
+ * anything without one runs on {@code taskScheduler}.
+ *
+ * <p>I/O-bound schedulers may run on virtual threads ({@code scheduling.*.virtual-threads}); on a
+ * JDK without them (&lt; 21) the setting falls back to a platform thread pool.
+ */
+@Slf4j
+@Configuration
+public class SchedulingConfig {
+  public static final String TELEMETRY_PUSH = "telemetryPushScheduler";
+  public static final String MISSION_DISPATCH = "missionDispatchScheduler";
+
+  /** Default scheduler: snapshot eviction, Redis mirror flush, Spring Integration housekeeping. */
+  @Bean(name = "taskScheduler")
+  @Primary
+  public TaskScheduler taskScheduler(
+      @Value("${scheduling.maintenance.pool-size:2}") int poolSize,
+      @Value("${scheduling.maintenance.virtual-threads:false}") boolean virtualThreads) {
+    return scheduler("maintenance-", poolSize, virtualThreads);
+  }
+
+  @Bean(name = TELEMETRY_PUSH)
+  public TaskScheduler telemetryPushScheduler(@Value("${scheduling.telemetry-push.pool-size:1}") int poolSize) {
+    // CPU-bound fan-out to the in-memory broker, always on platform threads
+    return scheduler("telemetry-push-", poolSize, false);
+  }
+
+  @Bean(name = MISSION_DISPATCH)
+  public TaskScheduler missionDispatchScheduler(
+      @Value("${scheduling.mission-dispatch.pool-size:1}") int poolSize,
+      @Value("${scheduling.mission-dispatch.virtual-threads:false}") boolean virtualThreads) {
+    return scheduler("mission-dispatch-", poolSize, virtualThreads);
+  }
+
+  private static TaskScheduler scheduler(String prefix, int poolSize, boolean virtualThreads) {
+    if (virtualThreads) {
+      if (Runtime.version().feature() >= 21) {
+        SimpleAsyncTaskScheduler scheduler = new SimpleAsyncTaskScheduler();
+        scheduler.setThreadNamePrefix(prefix);
+        scheduler.setVirtualThreads(true);
+        return scheduler;
+      }
+      log.warn("Virtual threads need JDK 21+, scheduler {} uses a platform thread pool", prefix);
+    }
+    ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+    scheduler.setPoolSize(Math.max(poolSize, 1));
+    scheduler.setThreadNamePrefix(prefix);
+    scheduler.setWaitForTasksToCompleteOnShutdown(false);
+    return scheduler;
+  }
+}
@@ -37,7 +37,8 @@ public class SecurityConfig {
                     .requestMatchers("/api/catalog/**", "/api/configcenter/**").authenticated()
                     .requestMatchers("/api/alerts/**").authenticated()
                     .requestMatchers("/ws/**").permitAll()
-                    .requestMatchers("/actuator/**").permitAll()
+                    .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                    .requestMatchers("/actuator/**").authenticated()
                     .anyRequest()
                     .authenticated())
         .authenticationProvider(tokenAuthenticationProvider)
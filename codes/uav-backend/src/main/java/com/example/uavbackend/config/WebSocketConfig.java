@@ -1,14 +1,120 @@
 package com.example.uavbackend.config;
 
+import io.micrometer.core.instrument.Counter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.config.StompBrokerRelayRegistration;
+import org.springframework.messaging.simp.stomp.StompReactorNettyCodec;
+import org.springframework.messaging.tcp.reactor.ReactorNettyTcpClient;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
+@Slf4j
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+  private static final String EXTENSIONS_HEADER = "Sec-WebSocket-Extensions";
+
+  private final WebSocketOutboundGuard outboundGuard;
+  private final MeterRegistry meterRegistry;
+
+  @Value("${websocket.broker.mode:simple}")
+  private String brokerMode;
+
+  @Value("${websocket.broker.relay.addresses:localhost:61613}")
+  private List<String> relayAddresses;
+
+  @Value("${websocket.broker.relay.login:guest}")
+  private String relayLogin;
+
+  @Value("${websocket.broker.relay.passcode:guest}")
+  private String relayPasscode;
+
+  @Value("${websocket.broker.relay.virtual-host:}")
+  private String relayVirtualHost;
+
+  @Value("${websocket.broker.relay.heartbeat-ms:10000}")
+  private long relayHeartbeatMs;
+
+  @Value("${websocket.transport.send-time-limit-ms:10000}")
+  private int sendTimeLimitMs;
+
+  @Value("${websocket.transport.send-buffer-size-limit:524288}")
+  private int sendBufferSizeLimit;
+
+  @Value("${websocket.transport.message-size-limit:65536}")
+  private int messageSizeLimit;
+
+  @Value("${websocket.outbound.pool-size:4}")
+  private int outboundPoolSize;
+
+  @Value("${websocket.outbound.queue-capacity:10000}")
+  private int outboundQueueCapacity;
+
+  /**
+   * Tomcat negotiates permessage-deflate on its own whenever the browser offers it. Compression is
+   * per session, so with many operators it costs CPU; setting {@code
+   * websocket.transport.permessage-deflate=false} hides the offer from the handshake.
+   */
+  @Bean
+  @ConditionalOnProperty(name = "websocket.transport.permessage-deflate", havingValue = "false")
+  public FilterRegistrationBean<OncePerRequestFilter> disablePermessageDeflate() {
+    OncePerRequestFilter filter =
+        new OncePerRequestFilter() {
+          @Override
+          protected void doFilterInternal(
+              HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+              throws ServletException, IOException {
+            chain.doFilter(
+                new HttpServletRequestWrapper(request) {
+                  @Override
+                  public String getHeader(String name) {
+                    return EXTENSIONS_HEADER.equalsIgnoreCase(name) ? null : super.getHeader(name);
+                  }
+
+                  @Override
+                  public Enumeration<String> getHeaders(String name) {
+                    return EXTENSIONS_HEADER.equalsIgnoreCase(name)
+                        ? Collections.emptyEnumeration()
+                        : super.getHeaders(name);
+                  }
+                },
+                response);
+          }
+        };
+    FilterRegistrationBean<OncePerRequestFilter> registration = new FilterRegistrationBean<>(filter);
+    registration.addUrlPatterns("/ws/*");
+    return registration;
+  }
+
+  public WebSocketConfig(WebSocketOutboundGuard outboundGuard, MeterRegistry meterRegistry) {
+    this.outboundGuard = outboundGuard;
+    this.meterRegistry = meterRegistry;
+  }
 
   @Override
   public void registerStompEndpoints(StompEndpointRegistry registry) {
@@ -18,7 +124,91 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
   @Override
   public void configureMessageBroker(MessageBrokerRegistry registry) {
-    registry.enableSimpleBroker("/topic");
     registry.setApplicationDestinationPrefixes("/app");
+    if ("relay".equalsIgnoreCase(brokerMode)) {
+      enableRelay(registry);
+      return;
+    }
+    // /queue carries per-session messages such as viewport-filtered telemetry (/user/queue/...)
+    registry.enableSimpleBroker("/topic", "/queue");
+  }
+
+  /**
+   * Sends /topic and /queue through an external STOMP broker so every node reaches every browser.
+   * The relay keeps one shared system connection, re-established automatically, plus one connection
+   * per client session; each (re)connect takes the next address in {@code relay.addresses}, so a
+   * broker that goes away is failed over to.
+   */
+  private void enableRelay(MessageBrokerRegistry registry) {
+    List<InetSocketAddress> addresses = relayAddresses.stream().map(WebSocketConfig::parseAddress).toList();
+    AtomicInteger next = new AtomicInteger();
+    ReactorNettyTcpClient<byte[]> tcpClient =
+        new ReactorNettyTcpClient<>(
+            client -> client.remoteAddress(
+                () -> addresses.get(Math.floorMod(next.getAndIncrement(), addresses.size()))),
+            new StompReactorNettyCodec());
+    StompBrokerRelayRegistration relay =
+        registry
+            .enableStompBrokerRelay("/topic", "/queue")
+            .setTcpClient(tcpClient)
+            .setClientLogin(relayLogin)
+            .setClientPasscode(relayPasscode)
+            .setSystemLogin(relayLogin)
+            .setSystemPasscode(relayPasscode)
+            .setSystemHeartbeatSendInterval(relayHeartbeatMs)
+            .setSystemHeartbeatReceiveInterval(relayHeartbeatMs)
+            // user destinations of sessions on other nodes are resolved through the broker
+            .setUserDestinationBroadcast("/topic/simp-unresolved-user")
+            .setUserRegistryBroadcast("/topic/simp-user-registry");
+    if (!relayVirtualHost.isBlank()) {
+      relay.setVirtualHost(relayVirtualHost);
+    }
+    log.info("WebSocket broker relay enabled, addresses={}", addresses);
+  }
+
+  private static InetSocketAddress parseAddress(String address) {
+    int colon = address.lastIndexOf(':');
+    if (colon < 0) {
+      return InetSocketAddress.createUnresolved(address.trim(), 61613);
+    }
+    return InetSocketAddress.createUnresolved(
+        address.substring(0, colon).trim(), Integer.parseInt(address.substring(colon + 1).trim()));
+  }
+
+  @Override
+  public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+    // a session that cannot flush within these limits is closed instead of buffering without bound
+    registration
+        .setSendTimeLimit(sendTimeLimitMs)
+        .setSendBufferSizeLimit(sendBufferSizeLimit)
+        .setMessageSizeLimit(messageSizeLimit);
+  }
+
+  @Override
+  public void configureClientOutboundChannel(ChannelRegistration registration) {
+    Counter rejected = meterRegistry.counter("websocket.outbound.rejected");
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setThreadNamePrefix("ws-outbound-");
+    executor.setCorePoolSize(outboundPoolSize);
+    executor.setMaxPoolSize(outboundPoolSize);
+    executor.setQueueCapacity(outboundQueueCapacity);
+    // when the queue is full the publishing thread writes itself, which slows producers down
+    // instead of losing mission updates
+    executor.setRejectedExecutionHandler(
+        (task, pool) -> {
+          rejected.increment();
+          new ThreadPoolExecutor.CallerRunsPolicy().rejectedExecution(task, pool);
+        });
+    Gauge.builder("websocket.outbound.queue", executor, WebSocketConfig::queueDepth).register(meterRegistry);
+    registration.taskExecutor(executor);
+    registration.interceptors(outboundGuard);
+  }
+
+  private static int queueDepth(ThreadPoolTaskExecutor executor) {
+    try {
+      return executor.getThreadPoolExecutor().getQueue().size();
+    } catch (IllegalStateException notStarted) {
+      return 0;
+    }
   }
 }
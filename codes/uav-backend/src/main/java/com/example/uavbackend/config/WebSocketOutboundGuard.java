@@ -0,0 +1,159 @@
+package com.example.uavbackend.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+/**
+ * Keeps one slow WebSocket client from piling up telemetry in the outbound channel.
+ *
+ * <p>Every message handed to a session is counted until the outbound executor has written it. Once
+ * a session has {@code websocket.outbound.max-pending} messages outstanding, further messages to a
+ * per-UAV destination (one path segment under a {@code conflatable-prefixes} entry, such as {@code
+ * /topic/uav-telemetry/UAV-001}) are held back, keeping only the latest per destination, and
+ * released when the backlog has halved. While a destination has a message parked, a newer one
+ * replaces it even after the backlog shrank, so an older message never follows a newer one.
+ *
+ * <p>Destinations that mix UAVs or depend on earlier messages (the batch, delta, compact and
+ * viewport streams, mission updates) are always delivered in order; a session that cannot keep up
+ * with them is closed by the transport's send-time and buffer limits.
+ */
+@Slf4j
+@Component
+public class WebSocketOutboundGuard implements ExecutorChannelInterceptor {
+  private final int maxPending;
+  private final long slowSendMs;
+  private final List<String> conflatablePrefixes;
+  private final Counter conflated;
+  private final Counter released;
+  private final Counter slowSends;
+  private final Counter terminated;
+
+  private static final class Backlog {
+    final AtomicInteger pending = new AtomicInteger();
+    // latest held-back message per destination; parking and releasing hold the backlog's monitor
+    final Map<String, Message<?>> parked = new ConcurrentHashMap<>();
+  }
+
+  private final Map<String, Backlog> backlogs = new ConcurrentHashMap<>();
+  private final ThreadLocal<Long> handleStart = new ThreadLocal<>();
+
+  public WebSocketOutboundGuard(
+      MeterRegistry meterRegistry,
+      @Value("${websocket.outbound.max-pending:100}") int maxPending,
+      @Value("${websocket.outbound.slow-send-ms:1000}") long slowSendMs,
+      @Value("${websocket.outbound.conflatable-prefixes:/topic/uav-telemetry/}") List<String> conflatablePrefixes) {
+    this.maxPending = Math.max(maxPending, 1);
+    this.slowSendMs = slowSendMs;
+    this.conflatablePrefixes = List.copyOf(conflatablePrefixes);
+    this.conflated = meterRegistry.counter("websocket.outbound.conflated");
+    this.released = meterRegistry.counter("websocket.outbound.released");
+    this.slowSends = meterRegistry.counter("websocket.outbound.slow");
+    this.terminated = meterRegistry.counter("websocket.session.terminated");
+  }
+
+  @Override
+  public Message<?> preSend(Message<?> message, MessageChannel channel) {
+    String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+    if (sessionId == null) {
+      return message;
+    }
+    Backlog backlog = backlogs.computeIfAbsent(sessionId, k -> new Backlog());
+    String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+    if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE
+        || !isConflatable(destination)) {
+      backlog.pending.incrementAndGet();
+      return message;
+    }
+    synchronized (backlog) {
+      if (backlog.pending.get() >= maxPending) {
+        // a newer telemetry message supersedes the one already parked
+        backlog.parked.put(destination, message);
+        conflated.increment();
+        return null;
+      }
+      if (backlog.parked.remove(destination) != null) {
+        // the parked message is older than this one and must not be sent after it
+        conflated.increment();
+      }
+      backlog.pending.incrementAndGet();
+      return message;
+    }
+  }
+
+  @Override
+  public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+    handleStart.set(System.nanoTime());
+    return message;
+  }
+
+  @Override
+  public void afterMessageHandled(
+      Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+    Long start = handleStart.get();
+    handleStart.remove();
+    String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+    if (start != null && (System.nanoTime() - start) / 1_000_000 >= slowSendMs) {
+      slowSends.increment();
+      log.debug("Slow WebSocket send, sessionId={}, destination={}",
+          sessionId, SimpMessageHeaderAccessor.getDestination(message.getHeaders()));
+    }
+    Backlog backlog = sessionId == null ? null : backlogs.get(sessionId);
+    if (backlog == null) {
+      return;
+    }
+    if (backlog.pending.decrementAndGet() <= maxPending / 2 && !backlog.parked.isEmpty()) {
+      // sent under the monitor: a newer message to the same destination waits in preSend until the
+      // parked one is queued ahead of it
+      synchronized (backlog) {
+        for (String destination : backlog.parked.keySet()) {
+          Message<?> parked = backlog.parked.remove(destination);
+          if (parked != null) {
+            released.increment();
+            channel.send(parked);
+          }
+        }
+      }
+    }
+  }
+
+  @EventListener
+  public void onDisconnect(SessionDisconnectEvent event) {
+    backlogs.remove(event.getSessionId());
+    // the transport closes sessions that exceed the send time or buffer size limit with this status
+    if (CloseStatus.SESSION_NOT_RELIABLE.equals(event.getCloseStatus())) {
+      terminated.increment();
+      log.warn("WebSocket session {} closed as too slow to keep up", event.getSessionId());
+    }
+  }
+
+  /** Exactly one path segment (the UAV code) below a configured prefix. */
+  private boolean isConflatable(String destination) {
+    if (destination == null) {
+      return false;
+    }
+    for (String prefix : conflatablePrefixes) {
+      if (destination.length() > prefix.length()
+          && destination.startsWith(prefix)
+          && destination.indexOf('/', prefix.length()) < 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
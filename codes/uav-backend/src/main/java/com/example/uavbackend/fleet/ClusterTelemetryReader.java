@@ -0,0 +1,150 @@
+package com.example.uavbackend.fleet;
+
+import com.example.uavbackend.mqtt.TelemetryClusterRouter;
+import com.example.uavbackend.telemetry.TelemetryFrame;
+import com.example.uavbackend.telemetry.TelemetryFrameDecoder;
+import com.example.uavbackend.telemetry.TelemetryRedisMirror;
+import jakarta.servlet.http.HttpServletRequest;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Reads per-UAV telemetry state across a clustered ingest (see {@link TelemetryClusterRouter}),
+ * where each UAV's snapshot, heartbeat, track and link statistics live only on its owning node.
+ *
+ * <ul>
+ *   <li>Status of UAVs owned elsewhere comes from the Redis mirror: a mirrored frame means online
+ *       with its reported status, no key means OFFLINE.
+ *   <li>Reads of in-memory state (track, link statistics) are sent to the owner's advertised URL
+ *       with the caller's {@code Authorization} header and {@value #LOCAL_HEADER}, which makes the
+ *       receiving node answer from its own state.
+ * </ul>
+ *
+ * Without clustering every UAV is local and nothing here leaves the process.
+ */
+@Slf4j
+@Component
+public class ClusterTelemetryReader {
+  public static final String LOCAL_HEADER = "X-Uav-Cluster-Local";
+
+  private final TelemetryClusterRouter clusterRouter;
+  private final TelemetryRedisMirror redisMirror;
+  private final TelemetryFrameDecoder frameDecoder;
+  private final TelemetryService telemetryService;
+  private final RestClient restClient;
+
+  public ClusterTelemetryReader(
+      TelemetryClusterRouter clusterRouter,
+      TelemetryRedisMirror redisMirror,
+      TelemetryFrameDecoder frameDecoder,
+      TelemetryService telemetryService,
+      @Value("${mqtt.cluster.read-timeout-ms:2000}") int readTimeoutMs) {
+    this.clusterRouter = clusterRouter;
+    this.redisMirror = redisMirror;
+    this.frameDecoder = frameDecoder;
+    this.telemetryService = telemetryService;
+    SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+    requestFactory.setConnectTimeout(readTimeoutMs);
+    requestFactory.setReadTimeout(readTimeoutMs);
+    this.restClient = RestClient.builder().requestFactory(requestFactory).build();
+  }
+
+  /** Status of each UAV: local ones per {@link TelemetryService#resolveStatus}, others from the mirror. */
+  public Map<String, UavStatus> resolveStatuses(Collection<String> uavCodes) {
+    Map<String, UavStatus> result = new HashMap<>(uavCodes.size() * 2);
+    List<String> remote = new ArrayList<>();
+    for (String uavCode : uavCodes) {
+      if (clusterRouter.isLocal(uavCode)) {
+        result.put(uavCode, telemetryService.resolveStatus(uavCode));
+      } else {
+        remote.add(uavCode);
+      }
+    }
+    Map<String, TelemetryFrame> frames = readRemoteFrames(remote);
+    for (String uavCode : remote) {
+      TelemetryFrame frame = frames.get(uavCode);
+      result.put(uavCode, frame == null ? UavStatus.OFFLINE : TelemetryService.statusOf(frame));
+    }
+    return result;
+  }
+
+  /**
+   * Latest mirrored frame of each UAV owned by another node, stamped with the read time; local
+   * UAVs and UAVs without a live mirror key are absent.
+   */
+  public Map<String, TelemetryFrame> readRemoteFrames(Collection<String> uavCodes) {
+    if (!clusterRouter.isEnabled() || uavCodes.isEmpty()) {
+      return Map.of();
+    }
+    List<String> remote = uavCodes.stream().filter(code -> !clusterRouter.isLocal(code)).toList();
+    long now = System.currentTimeMillis();
+    Map<String, TelemetryFrame> frames = new HashMap<>();
+    redisMirror.read(remote).forEach((uavCode, payload) -> frames.put(uavCode, frameDecoder.decode(uavCode, payload, now)));
+    return frames;
+  }
+
+  /**
+   * The owner's answer to this request when another node owns {@code uavCode}; empty when this node
+   * should answer itself (local UAV, already forwarded, or the owner advertised no URL).
+   */
+  public <T> Optional<T> fromOwner(String uavCode, HttpServletRequest request, Class<T> type) {
+    if (request.getHeader(LOCAL_HEADER) != null) {
+      return Optional.empty();
+    }
+    String ownerUrl = clusterRouter.ownerUrl(uavCode);
+    if (ownerUrl == null) {
+      return Optional.empty();
+    }
+    try {
+      return Optional.ofNullable(get(ownerUrl, request).body(type));
+    } catch (Exception e) {
+      log.warn("Reading {} from owner node {} failed", request.getRequestURI(), ownerUrl, e);
+      throw new IllegalStateException("无人机 " + uavCode + " 的归属节点暂不可达");
+    }
+  }
+
+  /**
+   * The answers of every other node to this request, for lists that each node fills with its own
+   * UAVs; a node that does not answer is skipped. Empty for forwarded requests.
+   */
+  public <T> List<T> fromPeers(HttpServletRequest request, ParameterizedTypeReference<List<T>> type) {
+    if (!clusterRouter.isEnabled() || request.getHeader(LOCAL_HEADER) != null) {
+      return List.of();
+    }
+    List<T> result = new ArrayList<>();
+    for (String peerUrl : clusterRouter.peerUrls()) {
+      try {
+        List<T> items = get(peerUrl, request).body(type);
+        if (items != null) {
+          result.addAll(items);
+        }
+      } catch (Exception e) {
+        log.warn("Reading {} from node {} failed; its UAVs are left out", request.getRequestURI(), peerUrl, e);
+      }
+    }
+    return result;
+  }
+
+  private RestClient.ResponseSpec get(String baseUrl, HttpServletRequest request) {
+    String query = request.getQueryString();
+    String uri = baseUrl + request.getRequestURI() + (query == null ? "" : "?" + query);
+    RestClient.RequestHeadersSpec<?> spec = restClient.get().uri(URI.create(uri)).header(LOCAL_HEADER, "1");
+    String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+    if (authorization != null) {
+      spec = spec.header(HttpHeaders.AUTHORIZATION, authorization);
+    }
+    return spec.retrieve();
+  }
+}
@@ -11,6 +11,7 @@ import com.example.uavbackend.fleet.dto.FleetSummaryDto;
 import com.example.uavbackend.fleet.dto.UavDeviceDto;
 import com.example.uavbackend.fleet.dto.UavRequest;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
@@ -26,18 +27,15 @@ public class FleetService {
   private final UserMapper userMapper;
   private final UavSensorMapper uavSensorMapper;
   private final SensorTypeMapper sensorTypeMapper;
-  private final TelemetryService telemetryService;
+  private final ClusterTelemetryReader clusterReader;
+  private final UavHeartbeatMonitor heartbeatMonitor;
 
   public FleetSummaryDto summary() {
     List<UavDevice> all = deviceMapper.selectList(null);
-    long online =
-        all.stream()
-            .map(d -> telemetryService.resolveStatus(d.getUavCode()))
-            .filter(status -> status == UavStatus.ONLINE)
-            .count();
+    Map<String, UavStatus> statuses = resolveStatuses(all);
+    long online = statuses.values().stream().filter(status -> status == UavStatus.ONLINE).count();
     long warning =
-        all.stream()
-            .map(d -> telemetryService.resolveStatus(d.getUavCode()))
+        statuses.values().stream()
             .filter(status -> status == UavStatus.WARNING || status == UavStatus.CRITICAL)
             .count();
     return new FleetSummaryDto(online, warning, 0L, 0);
@@ -47,20 +45,21 @@ public class FleetService {
     LambdaQueryWrapper<UavDevice> wrapper = new LambdaQueryWrapper<>();
     Page<UavDevice> mpPage = deviceMapper.selectPage(Page.of(Math.max(page, 1), size), wrapper);
     List<UavDevice> records = mpPage.getRecords();
-    List<UavDevice> filtered =
-        (statuses == null || statuses.isEmpty())
-            ? records
-            : records.stream()
-                .filter(d -> statuses.contains(telemetryService.resolveStatus(d.getUavCode())))
-                .toList();
+    List<UavDevice> filtered = records;
+    if (statuses != null && !statuses.isEmpty()) {
+      Map<String, UavStatus> resolved = resolveStatuses(records);
+      filtered = records.stream().filter(d -> statuses.contains(resolved.get(d.getUavCode()))).toList();
+    }
     List<UavDeviceDto> mapped = filtered.stream().map(this::toDto).toList();
     return new PageImpl<>(mapped, PageRequest.of(Math.max(page - 1, 0), size), mapped.size());
   }
 
   public List<UavDeviceDto> available(List<String> excludeMissionIds) {
     // excludeMissionIds currently unused
-    return deviceMapper.selectList(null).stream()
-        .filter(device -> telemetryService.resolveStatus(device.getUavCode()) == UavStatus.ONLINE)
+    List<UavDevice> all = deviceMapper.selectList(null);
+    Map<String, UavStatus> statuses = resolveStatuses(all);
+    return all.stream()
+        .filter(device -> statuses.get(device.getUavCode()) == UavStatus.ONLINE)
         .map(this::toDto)
         .collect(Collectors.toList());
   }
@@ -87,9 +86,15 @@ public class FleetService {
       throw new IllegalStateException("插入无人机记录失败");
     }
     saveSensors(device.getId(), request.sensors());
+    heartbeatMonitor.onDeviceRegistered(device.getUavCode(), device.getModel());
     return toDto(device);
   }
 
+  /** 集群模式下其他节点负责的无人机从 Redis 镜像取状态，一次批量读取。 */
+  private Map<String, UavStatus> resolveStatuses(List<UavDevice> devices) {
+    return clusterReader.resolveStatuses(devices.stream().map(UavDevice::getUavCode).toList());
+  }
+
   private UavDeviceDto toDto(UavDevice entity) {
     List<String> sensors = loadSensorCodes(entity.getId());
     // 前端状态仅从 WebSocket 遥测推送得出，这里不返回 status
@@ -0,0 +1,116 @@
+package com.example.uavbackend.fleet;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timer wheel of heartbeat deadlines. Every tracked UAV owns one {@link Node} that is linked
+ * into the bucket of its deadline tick; a tick only walks its own bucket, so the cost per tick is
+ * the number of UAVs due in it, independent of the fleet size.
+ *
+ * <p>Deadlines are re-checked lazily: the ingest thread just stores {@code lastSeen}, and when a
+ * node's bucket comes round it is either expired or moved to the bucket of its new deadline. Each
+ * live UAV is therefore touched once per timeout rather than once per frame. Buckets are intrusive
+ * doubly-linked lists, so nothing is allocated after a node has been created.
+ *
+ * <p>Not thread-safe: linking, unlinking and {@link #advance} belong to the tick thread.
+ */
+final class HeartbeatTimerWheel {
+  static final class Node {
+    final String uavCode;
+    /** Written by the ingest thread, read by the tick thread. */
+    volatile long lastSeen;
+    volatile long timeoutMs;
+    /** Set by ingest when the UAV comes (back) online, cleared by the tick thread on expiry. */
+    final AtomicBoolean online = new AtomicBoolean();
+    private Node prev;
+    private Node next;
+    private int bucket = -1;
+    private long rounds;
+
+    Node(String uavCode, long timeoutMs) {
+      this.uavCode = uavCode;
+      this.timeoutMs = timeoutMs;
+    }
+
+    long deadline() {
+      return lastSeen + timeoutMs;
+    }
+  }
+
+  private final Node[] buckets;
+  private final int mask;
+  private final long tickMs;
+  private long processedTick;
+  private int size;
+
+  /** @param wheelSize number of buckets, rounded up to a power of two */
+  HeartbeatTimerWheel(int wheelSize, long tickMs, long now) {
+    int slots = Integer.highestOneBit(Math.max(wheelSize - 1, 1)) << 1;
+    this.buckets = new Node[slots];
+    this.mask = slots - 1;
+    this.tickMs = tickMs;
+    this.processedTick = now / tickMs;
+  }
+
+  int size() {
+    return size;
+  }
+
+  /** Links a node (not currently in the wheel) into the bucket of its deadline. */
+  void schedule(Node node) {
+    long nextTick = processedTick + 1;
+    long target = Math.max(Math.floorDiv(node.deadline() + tickMs - 1, tickMs), nextTick);
+    int index = (int) (target & mask);
+    node.rounds = (target - nextTick) / buckets.length;
+    node.bucket = index;
+    node.prev = null;
+    node.next = buckets[index];
+    if (node.next != null) {
+      node.next.prev = node;
+    }
+    buckets[index] = node;
+    size++;
+  }
+
+  /**
+   * Processes every tick up to {@code now}. Nodes past their deadline are unlinked and handed to
+   * {@code expired}; the others are moved to the bucket of their current deadline.
+   */
+  void advance(long now, Consumer<Node> expired) {
+    long nowTick = now / tickMs;
+    while (processedTick < nowTick) {
+      processedTick++;
+      Node node = buckets[(int) (processedTick & mask)];
+      while (node != null) {
+        Node next = node.next;
+        if (node.rounds > 0) {
+          node.rounds--;
+        } else {
+          unlink(node);
+          if (node.deadline() <= now) {
+            expired.accept(node);
+          } else {
+            schedule(node);
+          }
+        }
+        node = next;
+      }
+    }
+  }
+
+  private void unlink(Node node) {
+    if (node.prev != null) {
+      node.prev.next = node.next;
+    } else {
+      buckets[node.bucket] = node.next;
+    }
+    if (node.next != null) {
+      node.next.prev = node.prev;
+    }
+    node.prev = null;
+    node.next = null;
+    node.bucket = -1;
+    size--;
+  }
+}
@@ -0,0 +1,104 @@
+package com.example.uavbackend.fleet;
+
+import com.example.uavbackend.telemetry.MetricKeys;
+import com.example.uavbackend.telemetry.TelemetryFrame;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * CBOR encoding of one push tick for {@code /topic/uav-telemetry-compact}.
+ *
+ * <p>A message is a map {@code {t, f, k}}: {@code t} is the tick time in ms; {@code f} holds one
+ * positional array per UAV:
+ *
+ * <pre>[uavCode, dtMs, status, missionId, lat*1e6, lng*1e6, alt*10, battery, speed*10, {slot: value}]</pre>
+ *
+ * and {@code k} maps every metric slot used in {@code f} to its name. Missing values are {@code
+ * null}, {@code dtMs} is {@code receivedAt - t}, coordinates are quantized to integers and metric
+ * values are 32-bit floats. Slots are numbered per process (see {@link MetricKeys}), so each message
+ * names its own slots: messages from different nodes on a relayed broker, or a subscriber that
+ * missed earlier messages, never need state from another message. Only decoded fields are carried;
+ * extra payload fields are not.
+ *
+ * <p>Not thread-safe; used by the push job only.
+ */
+final class TelemetryCompactEncoder {
+  static final double COORD_SCALE = 1e6;
+
+  private final CBORFactory factory = new CBORFactory();
+  private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(8192);
+  private final BitSet usedSlots = new BitSet();
+
+  byte[] encode(List<TelemetryFrame> frames, long now) {
+    buffer.reset();
+    usedSlots.clear();
+    try (CBORGenerator gen = factory.createGenerator(buffer)) {
+      gen.writeStartObject(null, 3);
+      gen.writeFieldName("t");
+      gen.writeNumber(now);
+      gen.writeFieldName("f");
+      gen.writeStartArray(null, frames.size());
+      for (TelemetryFrame frame : frames) {
+        writeFrame(gen, frame, now);
+      }
+      gen.writeEndArray();
+      gen.writeFieldName("k");
+      gen.writeStartObject(null, usedSlots.cardinality());
+      for (int slot = usedSlots.nextSetBit(0); slot >= 0; slot = usedSlots.nextSetBit(slot + 1)) {
+        gen.writeFieldId(slot);
+        gen.writeString(MetricKeys.name(slot));
+      }
+      gen.writeEndObject();
+      gen.writeEndObject();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return buffer.toByteArray();
+  }
+
+  private void writeFrame(CBORGenerator gen, TelemetryFrame frame, long now) throws IOException {
+    gen.writeStartArray(null, 10);
+    gen.writeString(frame.uavCode());
+    gen.writeNumber(frame.receivedAt() - now);
+    writeString(gen, frame.status());
+    writeString(gen, frame.missionId());
+    writeScaled(gen, frame.lat(), COORD_SCALE);
+    writeScaled(gen, frame.lng(), COORD_SCALE);
+    writeScaled(gen, frame.alt(), 10);
+    if (Double.isNaN(frame.battery())) {
+      gen.writeNull();
+    } else {
+      gen.writeNumber((float) frame.battery());
+    }
+    writeScaled(gen, frame.speed(), 10);
+    gen.writeStartObject(null, frame.metricCount());
+    for (int i = 0; i < frame.metricCount(); i++) {
+      usedSlots.set(frame.metricSlot(i));
+      gen.writeFieldId(frame.metricSlot(i));
+      gen.writeNumber((float) frame.metricValue(i));
+    }
+    gen.writeEndObject();
+    gen.writeEndArray();
+  }
+
+  private static void writeString(CBORGenerator gen, String value) throws IOException {
+    if (value == null) {
+      gen.writeNull();
+    } else {
+      gen.writeString(value);
+    }
+  }
+
+  private static void writeScaled(CBORGenerator gen, double value, double scale) throws IOException {
+    if (Double.isNaN(value)) {
+      gen.writeNull();
+    } else {
+      gen.writeNumber(Math.round(value * scale));
+    }
+  }
+}
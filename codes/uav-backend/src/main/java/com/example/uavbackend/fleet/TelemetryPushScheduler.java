@@ -1,28 +1,240 @@
 package com.example.uavbackend.fleet;
 
+import com.example.uavbackend.config.ScheduledJobMonitor;
+import com.example.uavbackend.config.SchedulingConfig;
+import com.example.uavbackend.telemetry.MetricKeys;
+import com.example.uavbackend.telemetry.TelemetryFrame;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import lombok.RequiredArgsConstructor;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
 
+/**
+ * Pushes the telemetry snapshot to WebSocket clients, but only what changed.
+ *
+ * <p>The snapshot already holds just the latest frame per UAV, so several updates within a tick
+ * collapse into one. A UAV is sent when its content changed since the last push (ignoring {@code
+ * ts}), or as a keepalive every {@code telemetry.push.keepalive-ms} so clients do not mark an idle
+ * UAV offline. Each push bumps a per-UAV sequence number.
+ *
+ * <p>Dashboards subscribe to {@value #BATCH_TOPIC}, which carries one JSON array of all pushed
+ * payloads per tick instead of one message per UAV; {@code /topic/uav-telemetry/{uavCode}} stays for
+ * detail views. The old per-UAV broadcast on {@code /topic/uav-telemetry} is only sent with {@code
+ * telemetry.push.legacy-broadcast}. Map views that registered a viewport get the same frames filtered
+ * to their area via {@link TelemetryViewportIndex}. Bandwidth-constrained clients can take {@value
+ * #COMPACT_TOPIC} instead, the same frames as CBOR (see {@link TelemetryCompactEncoder}).
+ *
+ * <p>With {@code telemetry.push.delta.enabled}, {@code /topic/uav-telemetry-delta} additionally
+ * carries field-level changes against the previous push: {@code {uavCode, seq, base, full, changes}}.
+ * A client applies a delta only if {@code base} equals the last {@code seq} it holds; keepalives are
+ * sent as {@code full} so a client that missed one resynchronises within a keepalive interval.
+ */
 @Component
-@RequiredArgsConstructor
 public class TelemetryPushScheduler {
   private final TelemetryService telemetryService;
   private final SimpMessagingTemplate messagingTemplate;
+  private final ScheduledJobMonitor jobMonitor;
+  private final TelemetryViewportIndex viewportIndex;
+  private final long keepaliveMs;
+  private final boolean deltaEnabled;
+  private final Counter sent;
+  private final Counter skipped;
+  private final DistributionSummary batchFrames;
+  private final boolean legacyBroadcast;
+  private final TelemetryCompactEncoder compactEncoder;
+  private final DistributionSummary jsonBytes;
+  private final DistributionSummary compactBytes;
 
-  @Scheduled(fixedDelay = 500)
+  private static final long PUSH_INTERVAL_MS = 500;
+  static final String BATCH_TOPIC = "/topic/uav-telemetry-batch";
+  static final String COMPACT_TOPIC = "/topic/uav-telemetry-compact";
+  /** A UAV absent from the snapshot for this long loses its push state. */
+  private static final long STATE_TTL_MS = 60_000;
+
+  private static final class PushState {
+    long seq;
+    long fingerprint;
+    long lastSentAt;
+    TelemetryFrame lastFrame;
+  }
+
+  // only touched by the push job
+  private final Map<String, PushState> states = new ConcurrentHashMap<>();
+
+  public TelemetryPushScheduler(
+      TelemetryService telemetryService,
+      SimpMessagingTemplate messagingTemplate,
+      ScheduledJobMonitor jobMonitor,
+      TelemetryViewportIndex viewportIndex,
+      MeterRegistry meterRegistry,
+      @Value("${telemetry.push.keepalive-ms:2000}") long keepaliveMs,
+      @Value("${telemetry.push.delta.enabled:false}") boolean deltaEnabled,
+      @Value("${telemetry.push.legacy-broadcast:false}") boolean legacyBroadcast,
+      @Value("${telemetry.push.compact.enabled:true}") boolean compactEnabled) {
+    this.telemetryService = telemetryService;
+    this.messagingTemplate = messagingTemplate;
+    this.jobMonitor = jobMonitor;
+    this.viewportIndex = viewportIndex;
+    this.keepaliveMs = keepaliveMs;
+    this.deltaEnabled = deltaEnabled;
+    this.sent = meterRegistry.counter("telemetry.push.sent");
+    this.skipped = meterRegistry.counter("telemetry.push.skipped");
+    this.batchFrames = meterRegistry.summary("telemetry.push.batch-frames");
+    this.legacyBroadcast = legacyBroadcast;
+    this.compactEncoder = compactEnabled ? new TelemetryCompactEncoder() : null;
+    this.jsonBytes = meterRegistry.summary("telemetry.push.bytes", "encoding", "json");
+    this.compactBytes = meterRegistry.summary("telemetry.push.bytes", "encoding", "cbor");
+  }
+
+  @Scheduled(fixedDelay = PUSH_INTERVAL_MS, scheduler = SchedulingConfig.TELEMETRY_PUSH)
   public void pushTelemetry() {
-    Map<String, String> all = telemetryService.readAllTelemetry();
-    if (all.isEmpty()) {
+    jobMonitor.run("telemetry.push", PUSH_INTERVAL_MS, this::pushSnapshot);
+  }
+
+  private void pushSnapshot() {
+    long now = System.currentTimeMillis();
+    List<TelemetryFrame> all = telemetryService.readAllFrames();
+    StringBuilder batch = null;
+    int batchSize = 0;
+    List<TelemetryFrame> pushed = compactEncoder == null ? null : new ArrayList<>(all.size());
+    // only fresh frames are returned (expired ones are filtered by the snapshot store)
+    for (TelemetryFrame frame : all) {
+      PushState state = states.computeIfAbsent(frame.uavCode(), k -> new PushState());
+      long fingerprint = fingerprint(frame);
+      boolean changed = state.lastFrame == null || fingerprint != state.fingerprint;
+      boolean keepalive = now - state.lastSentAt >= keepaliveMs;
+      if (!changed && !keepalive) {
+        skipped.increment();
+        continue;
+      }
+      TelemetryFrame previous = state.lastFrame;
+      state.seq++;
+      state.fingerprint = fingerprint;
+      state.lastSentAt = now;
+      state.lastFrame = frame;
+      if (legacyBroadcast) {
+        messagingTemplate.convertAndSend("/topic/uav-telemetry", frame.payload());
+      }
+      messagingTemplate.convertAndSend("/topic/uav-telemetry/" + frame.uavCode(), frame.payload());
+      if (frame.isJsonObject()) {
+        // raw payloads are already JSON objects, so the array is built by concatenation
+        if (batch == null) {
+          batch = new StringBuilder(all.size() * (frame.payload().length() + 1) + 2).append('[');
+        } else {
+          batch.append(',');
+        }
+        batch.append(frame.payload());
+        batchSize++;
+        viewportIndex.route(frame);
+      }
+      if (deltaEnabled) {
+        boolean full = previous == null || keepalive;
+        messagingTemplate.convertAndSend("/topic/uav-telemetry-delta", delta(state.seq, previous, frame, full));
+      }
+      if (pushed != null) {
+        pushed.add(frame);
+      }
+      sent.increment();
+    }
+    if (batch != null) {
+      // one message per tick for every dashboard subscriber
+      String body = batch.append(']').toString();
+      messagingTemplate.convertAndSend(BATCH_TOPIC, body);
+      batchFrames.record(batchSize);
+      jsonBytes.record(body.length());
+    }
+    if (pushed != null && !pushed.isEmpty()) {
+      byte[] body = compactEncoder.encode(pushed, now);
+      messagingTemplate.convertAndSend(COMPACT_TOPIC, body, binaryHeaders());
+      compactBytes.record(body.length);
+    }
+    viewportIndex.flush();
+    states.entrySet().removeIf(e -> {
+      if (now - e.getValue().lastSentAt <= STATE_TTL_MS) {
+        return false;
+      }
+      viewportIndex.forget(e.getKey());
+      return true;
+    });
+  }
+
+  /** octet-stream makes STOMP send a binary WebSocket frame instead of text. */
+  private static MessageHeaders binaryHeaders() {
+    SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+    headers.setContentType(MimeTypeUtils.APPLICATION_OCTET_STREAM);
+    headers.setLeaveMutable(true);
+    return headers.getMessageHeaders();
+  }
+
+  /** Hash of the decoded content; {@code ts} and other undecoded fields do not count as a change. */
+  static long fingerprint(TelemetryFrame frame) {
+    long h = Objects.hashCode(frame.status());
+    h = 31 * h + Objects.hashCode(frame.missionId());
+    h = 31 * h + Double.doubleToLongBits(frame.lat());
+    h = 31 * h + Double.doubleToLongBits(frame.lng());
+    h = 31 * h + Double.doubleToLongBits(frame.alt());
+    h = 31 * h + Double.doubleToLongBits(frame.battery());
+    h = 31 * h + Double.doubleToLongBits(frame.speed());
+    for (int i = 0; i < frame.metricCount(); i++) {
+      h = 31 * h + frame.metricSlot(i);
+      h = 31 * h + Double.doubleToLongBits(frame.metricValue(i));
+    }
+    return h;
+  }
+
+  private static Map<String, Object> delta(long seq, TelemetryFrame previous, TelemetryFrame frame, boolean full) {
+    TelemetryFrame base = full ? null : previous;
+    Map<String, Object> changes = new LinkedHashMap<>();
+    if (base == null || !Objects.equals(base.status(), frame.status())) {
+      changes.put("status", frame.status());
+    }
+    if (base == null || !Objects.equals(base.missionId(), frame.missionId())) {
+      changes.put("missionId", frame.missionId());
+    }
+    putIfChanged(changes, "lat", base == null ? Double.NaN : base.lat(), frame.lat(), base == null);
+    putIfChanged(changes, "lng", base == null ? Double.NaN : base.lng(), frame.lng(), base == null);
+    putIfChanged(changes, "alt", base == null ? Double.NaN : base.alt(), frame.alt(), base == null);
+    putIfChanged(changes, "battery", base == null ? Double.NaN : base.battery(), frame.battery(), base == null);
+    putIfChanged(changes, "speed", base == null ? Double.NaN : base.speed(), frame.speed(), base == null);
+    Map<String, Object> data = new LinkedHashMap<>();
+    for (int i = 0; i < frame.metricCount(); i++) {
+      int slot = frame.metricSlot(i);
+      double value = frame.metricValue(i);
+      if (base == null || Double.compare(base.metric(slot, Double.NaN), value) != 0) {
+        data.put(MetricKeys.name(slot), value);
+      }
+    }
+    if (!data.isEmpty()) {
+      changes.put("data", data);
+    }
+    Map<String, Object> message = new LinkedHashMap<>();
+    message.put("uavCode", frame.uavCode());
+    message.put("seq", seq);
+    message.put("base", full ? null : seq - 1);
+    message.put("full", full);
+    message.put("changes", changes);
+    return message;
+  }
+
+  private static void putIfChanged(Map<String, Object> changes, String field, double before, double after, boolean full) {
+    if (Double.isNaN(after)) {
       return;
     }
-    all.forEach(
-        (uavCode, payload) -> {
-          // only push fresh keys (expired keys are filtered by readAllTelemetry)
-          messagingTemplate.convertAndSend("/topic/uav-telemetry", payload);
-          messagingTemplate.convertAndSend("/topic/uav-telemetry/" + uavCode, payload);
-        });
+    if (full || Double.compare(before, after) != 0) {
+      changes.put(field, after);
+    }
   }
 }
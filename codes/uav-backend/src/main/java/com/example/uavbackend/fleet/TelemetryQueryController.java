@@ -0,0 +1,87 @@
+package com.example.uavbackend.fleet;
+
+import com.example.uavbackend.fleet.dto.FlightTrackDto;
+import com.example.uavbackend.fleet.dto.TelemetryLinkStatsDto;
+import com.example.uavbackend.fleet.dto.TelemetryRollupDto;
+import com.example.uavbackend.telemetry.FlightTrackBuffer;
+import com.example.uavbackend.telemetry.FlightTrackStore;
+import com.example.uavbackend.telemetry.TelemetryRollupReader;
+import com.example.uavbackend.telemetry.TelemetrySequenceTracker;
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Read-only views over the telemetry stores: recent track, rollups and link statistics. Tracks and
+ * link statistics are held by the node owning each UAV, so in cluster mode a track is read from
+ * the owner and link statistics are gathered from every node (see {@link ClusterTelemetryReader});
+ * rollups are shared through the database.
+ */
+@RestController
+@RequestMapping("/api/fleet")
+@RequiredArgsConstructor
+public class TelemetryQueryController {
+  private final FlightTrackStore trackStore;
+  private final TelemetryRollupReader rollupReader;
+  private final TelemetrySequenceTracker sequenceTracker;
+  private final ClusterTelemetryReader clusterReader;
+
+  /** 近期航迹；未指定 since 时返回缓冲区内全部点。 */
+  @GetMapping("/{uavCode}/track")
+  public FlightTrackDto track(
+      @PathVariable String uavCode,
+      @RequestParam(name = "since", required = false) Long since,
+      HttpServletRequest request) {
+    Optional<FlightTrackDto> remote = clusterReader.fromOwner(uavCode, request, FlightTrackDto.class);
+    if (remote.isPresent()) {
+      return remote.get();
+    }
+    FlightTrackBuffer.Slice slice = trackStore.track(uavCode, since == null ? Long.MIN_VALUE : since);
+    return new FlightTrackDto(
+        uavCode, slice.count(), slice.ts(), slice.lat(), slice.lng(), slice.alt(), slice.speed(), slice.battery());
+  }
+
+  /** 指标趋势：默认最近 1 小时、500 个点；按范围与点数选择 1s/10s/1m 汇总表。 */
+  @GetMapping("/{uavCode}/rollups")
+  public TelemetryRollupDto rollups(
+      @PathVariable String uavCode,
+      @RequestParam("metric") String metric,
+      @RequestParam(name = "from", required = false) Long from,
+      @RequestParam(name = "to", required = false) Long to,
+      @RequestParam(name = "maxPoints", defaultValue = "500") int maxPoints) {
+    long end = to == null ? System.currentTimeMillis() : to;
+    long start = from == null ? end - 3_600_000L : from;
+    if (start >= end) {
+      throw new IllegalArgumentException("from 必须早于 to");
+    }
+    TelemetryRollupReader.Series series = rollupReader.query(uavCode, metric, start, end, maxPoints);
+    return new TelemetryRollupDto(
+        uavCode, metric, series.source().label(), series.stepMs(), series.count(), series.ts(), series.samples(),
+        series.min(), series.max(), series.avg(), series.last());
+  }
+
+  /** 各无人机遥测序号统计（丢包率、乱序率、重复帧），按丢包率降序。 */
+  @GetMapping("/link-stats")
+  public List<TelemetryLinkStatsDto> linkStats(HttpServletRequest request) {
+    return Stream.concat(
+            sequenceTracker.stats().entrySet().stream()
+                .map(
+                    e -> {
+                      var s = e.getValue();
+                      return new TelemetryLinkStatsDto(
+                          e.getKey(), s.lastSeq(), s.received(), s.duplicates(), s.lost(), s.reordered(),
+                          s.resets(), s.lossRate(), s.reorderRate());
+                    }),
+            clusterReader.fromPeers(request, new ParameterizedTypeReference<List<TelemetryLinkStatsDto>>() {}).stream())
+        .sorted((a, b) -> Double.compare(b.lossRate(), a.lossRate()))
+        .toList();
+  }
+}
@@ -0,0 +1,105 @@
+package com.example.uavbackend.fleet;
+
+import com.example.uavbackend.telemetry.TelemetryFormat;
+import com.example.uavbackend.telemetry.TelemetrySegmentLog;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Replays raw telemetry from the local {@link TelemetrySegmentLog} as NDJSON, one
+ * {@code {"ts":<receivedAt>,"payload":<frame>}} line per frame, oldest first. The log holds raw
+ * MQTT bytes, including payloads ingest rejected, so only a well-formed single-line JSON object is
+ * written straight from the log's mapped slice; anything else (pretty-printed JSON, CBOR,
+ * MessagePack, gzip) is re-encoded as JSON, and what cannot be decoded is sent as {@code "raw"}
+ * base64.
+ *
+ * <p>Replay is per node: the log only holds frames this node ingested, so in cluster mode a UAV's
+ * history is on whichever node owned it at the time. Fails when the log is disabled (the default).
+ */
+@RestController
+@RequestMapping("/api/fleet")
+@RequiredArgsConstructor
+public class TelemetryReplayController {
+  public static final int MAX_LIMIT = 100_000;
+  private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+  private final TelemetrySegmentLog segmentLog;
+
+  @GetMapping("/{uavCode}/replay")
+  public ResponseEntity<StreamingResponseBody> replay(
+      @PathVariable String uavCode,
+      @RequestParam("from") long from,
+      @RequestParam(name = "to", required = false) Long to,
+      @RequestParam(name = "limit", defaultValue = "10000") int limit) {
+    if (!segmentLog.isEnabled()) {
+      throw new IllegalStateException("遥测回放日志未开启（telemetry.segment-log.enabled）");
+    }
+    long toMs = to == null ? System.currentTimeMillis() : to;
+    int max = Math.max(0, Math.min(limit, MAX_LIMIT));
+    StreamingResponseBody body =
+        out -> {
+          WritableByteChannel channel = Channels.newChannel(out);
+          try {
+            segmentLog.read(
+                uavCode,
+                from,
+                toMs,
+                max,
+                (ts, payload) -> {
+                  writeLine(out, channel, ts, payload);
+                  return true;
+                });
+          } catch (UncheckedIOException e) {
+            throw e.getCause();
+          }
+          out.flush();
+        };
+    return ResponseEntity.ok().contentType(NDJSON).body(body);
+  }
+
+  static void writeLine(OutputStream out, WritableByteChannel channel, long ts, ByteBuffer payload) {
+    try {
+      out.write(("{\"ts\":" + ts).getBytes(StandardCharsets.US_ASCII));
+      if (TelemetryFormat.isSingleLineJsonObject(payload)) {
+        out.write(",\"payload\":".getBytes(StandardCharsets.US_ASCII));
+        while (payload.hasRemaining()) {
+          channel.write(payload);
+        }
+      } else {
+        byte[] raw = new byte[payload.remaining()];
+        payload.get(raw);
+        byte[] json;
+        try {
+          json = TelemetryFormat.toJsonBytes(raw);
+        } catch (IOException e) {
+          json = null;
+        }
+        if (json != null) {
+          out.write(",\"payload\":".getBytes(StandardCharsets.US_ASCII));
+          out.write(json);
+        } else {
+          out.write((",\"raw\":\"" + Base64.getEncoder().encodeToString(raw) + "\"").getBytes(StandardCharsets.US_ASCII));
+        }
+      }
+      out.write('}');
+      out.write('\n');
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -1,81 +1,78 @@
 package com.example.uavbackend.fleet;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 import com.example.uavbackend.fleet.UavStatus;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import com.example.uavbackend.telemetry.TelemetryFrame;
+import com.example.uavbackend.telemetry.TelemetryIngestPipeline;
+import com.example.uavbackend.telemetry.TelemetrySnapshotStore;
 import org.springframework.stereotype.Service;
 
 @Service
 public class TelemetryService {
-  private static final String KEY_PREFIX = "uav:telemetry:";
-  private final StringRedisTemplate redisTemplate;
-  private final ObjectMapper objectMapper = new ObjectMapper();
-  // TTL in milliseconds
-  private static final long TTL_MS = 2000;
+  private final TelemetrySnapshotStore snapshotStore;
+  private final TelemetryIngestPipeline ingestPipeline;
+  private final UavHeartbeatMonitor heartbeatMonitor;
 
-  public TelemetryService(StringRedisTemplate redisTemplate) {
-    this.redisTemplate = redisTemplate;
+  public TelemetryService(
+      TelemetrySnapshotStore snapshotStore,
+      TelemetryIngestPipeline ingestPipeline,
+      UavHeartbeatMonitor heartbeatMonitor) {
+    this.snapshotStore = snapshotStore;
+    this.ingestPipeline = ingestPipeline;
+    this.heartbeatMonitor = heartbeatMonitor;
   }
 
+  /** Queue a payload for asynchronous decoding; it becomes visible once the ingest thread drains it. */
   public void upsertTelemetry(String uavCode, String payloadJson) {
-    try {
-      redisTemplate.opsForValue().set(KEY_PREFIX + uavCode, payloadJson, TTL_MS, TimeUnit.MILLISECONDS);
-    } catch (Exception e) {
-      // 忽略 Redis 异常，避免接口 500
-    }
+    ingestPipeline.offer(uavCode, payloadJson);
+  }
+
+  public List<TelemetryFrame> readAllFrames() {
+    return snapshotStore.snapshot();
+  }
+
+  public TelemetryFrame readFrame(String uavCode) {
+    return snapshotStore.get(uavCode);
   }
 
   public Map<String, String> readAllTelemetry() {
-    try {
-      var keys = redisTemplate.keys(KEY_PREFIX + "*");
-      if (keys == null || keys.isEmpty()) {
-        return Map.of();
-      }
-      List<String> keyList = keys.stream().toList();
-      List<String> values = redisTemplate.opsForValue().multiGet(keyList);
-      return keyList.stream()
-          .collect(Collectors.toMap(k -> k.substring(KEY_PREFIX.length()), k -> values.get(keyList.indexOf(k))));
-    } catch (Exception e) {
-      return Map.of();
+    List<TelemetryFrame> frames = snapshotStore.snapshot();
+    Map<String, String> result = new LinkedHashMap<>(frames.size() * 2);
+    for (TelemetryFrame frame : frames) {
+      result.put(frame.uavCode(), frame.payload());
     }
+    return result;
   }
 
   public String readTelemetry(String uavCode) {
-    try {
-      return redisTemplate.opsForValue().get(KEY_PREFIX + uavCode);
-    } catch (Exception e) {
-      return null;
-    }
+    TelemetryFrame frame = snapshotStore.get(uavCode);
+    return frame == null ? null : frame.payload();
   }
 
   /**
    * Resolve a status from cached telemetry according to rules:
-   * - No telemetry => OFFLINE
+   * - Heartbeat timed out (see {@link UavHeartbeatMonitor}) => OFFLINE
    * - Telemetry with "status" => mapped enum (case-insensitive), fallback to ONLINE if unknown
-   * - Telemetry present without status => ONLINE
+   * - Otherwise => ONLINE
    */
   public UavStatus resolveStatus(String uavCode) {
-    String payload = readTelemetry(uavCode);
-    if (payload == null) {
+    if (!heartbeatMonitor.isOnline(uavCode)) {
       return UavStatus.OFFLINE;
     }
-    try {
-      JsonNode node = objectMapper.readTree(payload);
-      if (node.hasNonNull("status")) {
-        String status = node.get("status").asText("");
-        try {
-          return UavStatus.valueOf(status.trim().toUpperCase());
-        } catch (IllegalArgumentException ignore) {
-          return UavStatus.ONLINE;
-        }
+    TelemetryFrame frame = snapshotStore.get(uavCode);
+    return frame == null ? UavStatus.ONLINE : statusOf(frame);
+  }
+
+  /** The status a frame reports, ONLINE when it reports none or an unknown one. */
+  static UavStatus statusOf(TelemetryFrame frame) {
+    if (frame.status() != null) {
+      try {
+        return UavStatus.valueOf(frame.status());
+      } catch (IllegalArgumentException ignore) {
+        return UavStatus.ONLINE;
       }
-    } catch (Exception ignored) {
-      // ignore parse issues, treat as ONLINE when telemetry exists
     }
     return UavStatus.ONLINE;
   }
@@ -87,4 +84,8 @@ public class TelemetryService {
           return true;
       }
   }
+
+  public boolean isOnline(TelemetryFrame frame) {
+    return frame != null;
+  }
 }
@@ -0,0 +1,30 @@
+package com.example.uavbackend.fleet;
+
+import com.example.uavbackend.fleet.dto.TelemetryViewportRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+@Controller
+@RequiredArgsConstructor
+public class TelemetryViewportController {
+  private final TelemetryViewportIndex viewportIndex;
+
+  /** STOMP SEND to /app/telemetry/viewport; an empty body clears the viewport. */
+  @MessageMapping("/telemetry/viewport")
+  public void updateViewport(
+      @Payload(required = false) TelemetryViewportRequest request,
+      @Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String sessionId) {
+    viewportIndex.register(sessionId, request);
+  }
+
+  @EventListener
+  public void onDisconnect(SessionDisconnectEvent event) {
+    viewportIndex.unregister(event.getSessionId());
+  }
+}
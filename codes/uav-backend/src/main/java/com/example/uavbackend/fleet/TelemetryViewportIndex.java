@@ -0,0 +1,261 @@
+package com.example.uavbackend.fleet;
+
+import com.example.uavbackend.fleet.dto.TelemetryViewportRequest;
+import com.example.uavbackend.telemetry.TelemetryFrame;
+import com.example.uavbackend.telemetry.TelemetryFrameListener;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Routes pushed telemetry to the WebSocket sessions whose map viewport contains the UAV.
+ *
+ * <p>The map is cut into square cells of {@code telemetry.viewport.cell-deg} degrees. Each UAV is
+ * filed under the cell of its last position, which only changes on ingest when it crosses a cell
+ * boundary, and each session is filed under every cell its box (grown by {@code margin-ratio})
+ * covers. Routing a pushed frame is one cell lookup, whatever the fleet size or session count. A
+ * viewport spanning more than {@code max-cells} cells, or the antimeridian, gets the whole fleet.
+ *
+ * <p>Sessions receive one JSON array per push tick on {@code /user/queue/uav-telemetry-viewport},
+ * plus the current contents of their viewport right after registering. A UAV leaving the viewport
+ * is simply no longer sent.
+ */
+@Slf4j
+@Component
+public class TelemetryViewportIndex implements TelemetryFrameListener {
+  static final String VIEWPORT_QUEUE = "/queue/uav-telemetry-viewport";
+
+  private final SimpMessagingTemplate messagingTemplate;
+  private final TelemetryService telemetryService;
+  private final double cellDeg;
+  private final double marginRatio;
+  private final int maxCells;
+  private final long columns;
+
+  private record Viewport(long[] cells, boolean wholeFleet) {}
+
+  // uavCode -> cell of its last position, and the reverse
+  private final Map<String, Long> uavCells = new ConcurrentHashMap<>();
+  private final Map<Long, Set<String>> cellUavs = new ConcurrentHashMap<>();
+  // sessionId -> viewport, and cell -> sessions watching it
+  private final Map<String, Viewport> viewports = new ConcurrentHashMap<>();
+  private final Map<Long, Set<String>> cellSessions = new ConcurrentHashMap<>();
+  private final Set<String> wholeFleetSessions = ConcurrentHashMap.newKeySet();
+
+  // only touched by the push job: per-session array of this tick's frames
+  private final Map<String, StringBuilder> outgoing = new HashMap<>();
+
+  public TelemetryViewportIndex(
+      SimpMessagingTemplate messagingTemplate,
+      TelemetryService telemetryService,
+      MeterRegistry meterRegistry,
+      @Value("${telemetry.viewport.cell-deg:0.05}") double cellDeg,
+      @Value("${telemetry.viewport.margin-ratio:0.2}") double marginRatio,
+      @Value("${telemetry.viewport.max-cells:4096}") int maxCells) {
+    this.messagingTemplate = messagingTemplate;
+    this.telemetryService = telemetryService;
+    this.cellDeg = cellDeg;
+    this.marginRatio = Math.max(marginRatio, 0);
+    this.maxCells = maxCells;
+    this.columns = (long) Math.ceil(360 / cellDeg) + 1;
+    Gauge.builder("telemetry.viewport.sessions", viewports, Map::size).register(meterRegistry);
+  }
+
+  @Override
+  public void onFrame(TelemetryFrame frame) {
+    if (!frame.hasPosition()) {
+      return;
+    }
+    long cell = cellOf(frame.lat(), frame.lng());
+    Long previous = uavCells.put(frame.uavCode(), cell);
+    if (previous == null || previous != cell) {
+      if (previous != null) {
+        removeFrom(cellUavs, previous, frame.uavCode());
+      }
+      cellUavs.computeIfAbsent(cell, k -> ConcurrentHashMap.newKeySet()).add(frame.uavCode());
+    }
+  }
+
+  /** Drops a UAV that has stopped reporting. */
+  public void forget(String uavCode) {
+    Long cell = uavCells.remove(uavCode);
+    if (cell != null) {
+      removeFrom(cellUavs, cell, uavCode);
+    }
+  }
+
+  /** Sets or replaces a session's viewport and sends it what is currently inside. */
+  public synchronized void register(String sessionId, TelemetryViewportRequest request) {
+    Viewport viewport = toViewport(request);
+    unregister(sessionId);
+    if (viewport == null) {
+      return;
+    }
+    viewports.put(sessionId, viewport);
+    if (viewport.wholeFleet()) {
+      wholeFleetSessions.add(sessionId);
+    } else {
+      for (long cell : viewport.cells()) {
+        cellSessions.computeIfAbsent(cell, k -> ConcurrentHashMap.newKeySet()).add(sessionId);
+      }
+    }
+    sendInitial(sessionId, viewport);
+  }
+
+  public synchronized void unregister(String sessionId) {
+    Viewport viewport = viewports.remove(sessionId);
+    if (viewport == null) {
+      return;
+    }
+    wholeFleetSessions.remove(sessionId);
+    for (long cell : viewport.cells()) {
+      removeFrom(cellSessions, cell, sessionId);
+    }
+  }
+
+  /** Queues a pushed frame for every session watching its position; sent by {@link #flush()}. */
+  void route(TelemetryFrame frame) {
+    if (viewports.isEmpty()) {
+      return;
+    }
+    for (String sessionId : wholeFleetSessions) {
+      append(sessionId, frame);
+    }
+    if (frame.hasPosition()) {
+      Set<String> sessions = cellSessions.get(cellOf(frame.lat(), frame.lng()));
+      if (sessions != null) {
+        for (String sessionId : sessions) {
+          append(sessionId, frame);
+        }
+      }
+    }
+  }
+
+  void flush() {
+    if (outgoing.isEmpty()) {
+      return;
+    }
+    outgoing.forEach((sessionId, batch) -> send(sessionId, batch.append(']').toString()));
+    outgoing.clear();
+  }
+
+  private void append(String sessionId, TelemetryFrame frame) {
+    StringBuilder batch = outgoing.get(sessionId);
+    if (batch == null) {
+      outgoing.put(sessionId, new StringBuilder(1024).append('[').append(frame.payload()));
+    } else {
+      batch.append(',').append(frame.payload());
+    }
+  }
+
+  private void sendInitial(String sessionId, Viewport viewport) {
+    StringBuilder batch = new StringBuilder(1024).append('[');
+    boolean empty = true;
+    if (viewport.wholeFleet()) {
+      List<TelemetryFrame> frames = telemetryService.readAllFrames();
+      for (TelemetryFrame frame : frames) {
+        if (frame.isJsonObject()) {
+          batch.append(empty ? "" : ",").append(frame.payload());
+          empty = false;
+        }
+      }
+    } else {
+      for (long cell : viewport.cells()) {
+        Set<String> uavCodes = cellUavs.get(cell);
+        if (uavCodes == null) {
+          continue;
+        }
+        for (String uavCode : uavCodes) {
+          // the snapshot store drops UAVs that went offline
+          TelemetryFrame frame = telemetryService.readFrame(uavCode);
+          if (frame != null && frame.isJsonObject()) {
+            batch.append(empty ? "" : ",").append(frame.payload());
+            empty = false;
+          }
+        }
+      }
+    }
+    if (!empty) {
+      send(sessionId, batch.append(']').toString());
+    }
+  }
+
+  private void send(String sessionId, String body) {
+    // sessions are anonymous, so the session id itself is the user destination
+    SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+    headers.setSessionId(sessionId);
+    headers.setLeaveMutable(true);
+    messagingTemplate.convertAndSendToUser(sessionId, VIEWPORT_QUEUE, body, headers.getMessageHeaders());
+  }
+
+  private Viewport toViewport(TelemetryViewportRequest request) {
+    if (request == null
+        || request.minLat() == null
+        || request.minLng() == null
+        || request.maxLat() == null
+        || request.maxLng() == null) {
+      return null;
+    }
+    double minLat = request.minLat();
+    double maxLat = request.maxLat();
+    double minLng = request.minLng();
+    double maxLng = request.maxLng();
+    if (!(minLat <= maxLat) || Double.isNaN(minLng) || Double.isNaN(maxLng)) {
+      log.debug("Ignoring invalid telemetry viewport {}", request);
+      return null;
+    }
+    if (minLng > maxLng) {
+      // crosses the antimeridian
+      return new Viewport(new long[0], true);
+    }
+    double latMargin = (maxLat - minLat) * marginRatio;
+    double lngMargin = (maxLng - minLng) * marginRatio;
+    long rowFrom = row(Math.max(minLat - latMargin, -90));
+    long rowTo = row(Math.min(maxLat + latMargin, 90));
+    long colFrom = column(Math.max(minLng - lngMargin, -180));
+    long colTo = column(Math.min(maxLng + lngMargin, 180));
+    long count = (rowTo - rowFrom + 1) * (colTo - colFrom + 1);
+    if (count > maxCells) {
+      return new Viewport(new long[0], true);
+    }
+    long[] cells = new long[(int) count];
+    int i = 0;
+    for (long r = rowFrom; r <= rowTo; r++) {
+      for (long c = colFrom; c <= colTo; c++) {
+        cells[i++] = r * columns + c;
+      }
+    }
+    return new Viewport(cells, false);
+  }
+
+  private long cellOf(double lat, double lng) {
+    return row(lat) * columns + column(lng);
+  }
+
+  private long row(double lat) {
+    return (long) Math.floor((lat + 90) / cellDeg);
+  }
+
+  private long column(double lng) {
+    return (long) Math.floor((lng + 180) / cellDeg);
+  }
+
+  private static void removeFrom(Map<Long, Set<String>> index, long cell, String member) {
+    index.computeIfPresent(
+        cell,
+        (k, members) -> {
+          members.remove(member);
+          return members.isEmpty() ? null : members;
+        });
+  }
+}
@@ -0,0 +1,250 @@
+package com.example.uavbackend.fleet;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.example.uavbackend.config.ScheduledJobMonitor;
+import com.example.uavbackend.config.SchedulingConfig;
+import com.example.uavbackend.fleet.dto.UavStatusEvent;
+import com.example.uavbackend.mqtt.TelemetryClusterRouter;
+import com.example.uavbackend.telemetry.TelemetryFrame;
+import com.example.uavbackend.telemetry.TelemetryFrameListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tracks UAV liveness from ingest and publishes ONLINE/OFFLINE transitions to {@value #STATUS_TOPIC}
+ * as one JSON array of {@link UavStatusEvent} per tick.
+ *
+ * <p>A UAV goes ONLINE with its first frame (or the first after going offline) and OFFLINE when
+ * nothing arrived for its timeout: {@code telemetry.heartbeat.model-timeouts} per device model,
+ * {@code telemetry.heartbeat.timeout-ms} otherwise. Deadlines live in a {@link HeartbeatTimerWheel}
+ * that only the tick job touches; the ingest thread stores the receive time and, on a transition
+ * to online, queues the node for the next tick.
+ *
+ * <p>In cluster mode a UAV that went silent because its ownership moved to another node is dropped
+ * without an OFFLINE event; the new owner reports it from then on.
+ *
+ * <p>A UAV that stayed OFFLINE for {@code offline-evict-ms} is forgotten by a periodic sweep, so
+ * codes that published once (unregistered or retired devices) do not accumulate; its next frame
+ * reports it ONLINE again as usual.
+ */
+@Slf4j
+@Component
+public class UavHeartbeatMonitor implements TelemetryFrameListener {
+  public static final String STATUS_TOPIC = "/topic/uav-status";
+
+  private final SimpMessagingTemplate messagingTemplate;
+  private final UavDeviceMapper deviceMapper;
+  private final ScheduledJobMonitor jobMonitor;
+  private final TelemetryClusterRouter clusterRouter;
+  private final Map<String, HeartbeatTimerWheel.Node> nodes = new ConcurrentHashMap<>();
+  private final Queue<HeartbeatTimerWheel.Node> cameOnline = new ConcurrentLinkedQueue<>();
+  private final HeartbeatTimerWheel wheel;
+  private final long tickMs;
+  private final long defaultTimeoutMs;
+  private final Map<String, Long> modelTimeouts;
+  private final long offlineEvictMs;
+  private final long sweepIntervalMs;
+  private volatile Map<String, Long> timeoutsByUav = Map.of();
+  // tick thread only
+  private final List<UavStatusEvent> events = new ArrayList<>();
+  private volatile int online;
+  private final Counter onlineEvents;
+  private final Counter offlineEvents;
+  private final Counter handedOver;
+  private final Counter evicted;
+
+  public UavHeartbeatMonitor(
+      SimpMessagingTemplate messagingTemplate,
+      UavDeviceMapper deviceMapper,
+      ScheduledJobMonitor jobMonitor,
+      TelemetryClusterRouter clusterRouter,
+      MeterRegistry meterRegistry,
+      @Value("${telemetry.heartbeat.tick-ms:100}") long tickMs,
+      @Value("${telemetry.heartbeat.wheel-size:512}") int wheelSize,
+      @Value("${telemetry.heartbeat.timeout-ms:5000}") long defaultTimeoutMs,
+      @Value("${telemetry.heartbeat.model-timeouts:}") String modelTimeouts,
+      @Value("${telemetry.heartbeat.offline-evict-ms:600000}") long offlineEvictMs,
+      @Value("${telemetry.heartbeat.sweep-interval-ms:60000}") long sweepIntervalMs) {
+    this.messagingTemplate = messagingTemplate;
+    this.deviceMapper = deviceMapper;
+    this.jobMonitor = jobMonitor;
+    this.clusterRouter = clusterRouter;
+    this.tickMs = Math.max(tickMs, 1);
+    this.defaultTimeoutMs = defaultTimeoutMs;
+    this.modelTimeouts = parseModelTimeouts(modelTimeouts);
+    this.offlineEvictMs = offlineEvictMs;
+    this.sweepIntervalMs = sweepIntervalMs;
+    this.wheel = new HeartbeatTimerWheel(wheelSize, this.tickMs, System.currentTimeMillis());
+    this.onlineEvents = meterRegistry.counter("uav.heartbeat.transitions", "status", UavStatus.ONLINE.name());
+    this.offlineEvents = meterRegistry.counter("uav.heartbeat.transitions", "status", UavStatus.OFFLINE.name());
+    this.handedOver = meterRegistry.counter("uav.heartbeat.handed-over");
+    this.evicted = meterRegistry.counter("uav.heartbeat.evicted");
+    Gauge.builder("uav.heartbeat.online", this, UavHeartbeatMonitor::onlineCount).register(meterRegistry);
+  }
+
+  @Override
+  public void onFrame(TelemetryFrame frame) {
+    HeartbeatTimerWheel.Node node = nodes.get(frame.uavCode());
+    if (node == null) {
+      node = nodes.computeIfAbsent(frame.uavCode(), code -> new HeartbeatTimerWheel.Node(code, timeoutOf(code)));
+    }
+    node.lastSeen = frame.receivedAt();
+    if (node.online.compareAndSet(false, true)) {
+      cameOnline.offer(node);
+    }
+  }
+
+  public boolean isOnline(String uavCode) {
+    HeartbeatTimerWheel.Node node = nodes.get(uavCode);
+    return node != null && node.online.get();
+  }
+
+  /** UAVs online as of the last tick. */
+  public int onlineCount() {
+    return online;
+  }
+
+  @Scheduled(fixedDelayString = "${telemetry.heartbeat.tick-ms:100}", scheduler = SchedulingConfig.TELEMETRY_PUSH)
+  public void tick() {
+    jobMonitor.run("uav.heartbeat", tickMs, this::advance);
+  }
+
+  private void advance() {
+    long now = System.currentTimeMillis();
+    for (HeartbeatTimerWheel.Node node; (node = cameOnline.poll()) != null; ) {
+      // a frame raced with dropping the node after a handover: keep whichever node the map holds
+      HeartbeatTimerWheel.Node current = nodes.putIfAbsent(node.uavCode, node);
+      if (current != null && current != node) {
+        continue;
+      }
+      wheel.schedule(node);
+      events.add(new UavStatusEvent(node.uavCode, UavStatus.ONLINE, node.lastSeen, now));
+      onlineEvents.increment();
+      online++;
+    }
+    wheel.advance(now, node -> expire(node, now));
+    if (events.isEmpty()) {
+      return;
+    }
+    try {
+      messagingTemplate.convertAndSend(STATUS_TOPIC, events);
+    } catch (Exception e) {
+      log.warn("Failed to publish {} UAV status transitions", events.size(), e);
+    } finally {
+      events.clear();
+    }
+  }
+
+  private void expire(HeartbeatTimerWheel.Node node, long now) {
+    node.online.set(false);
+    // a frame that landed between the deadline check and the flag reset keeps the UAV online
+    if (node.deadline() > now && node.online.compareAndSet(false, true)) {
+      wheel.schedule(node);
+      return;
+    }
+    online--;
+    if (!clusterRouter.isLocal(node.uavCode)) {
+      // frames now go to the new owner, which publishes this UAV's status
+      nodes.remove(node.uavCode, node);
+      handedOver.increment();
+      return;
+    }
+    events.add(new UavStatusEvent(node.uavCode, UavStatus.OFFLINE, node.lastSeen, now));
+    offlineEvents.increment();
+  }
+
+  @Scheduled(fixedDelayString = "${telemetry.heartbeat.sweep-interval-ms:60000}")
+  public void sweep() {
+    jobMonitor.run("uav.heartbeat.sweep", sweepIntervalMs, this::evictOffline);
+  }
+
+  private void evictOffline() {
+    long cutoff = System.currentTimeMillis() - offlineEvictMs;
+    // offline nodes are no longer in the wheel; one that comes back online during the removal is
+    // re-added by the tick from the came-online queue
+    nodes.forEach(
+        (uavCode, node) -> {
+          if (!node.online.get() && node.lastSeen < cutoff && nodes.remove(uavCode, node)) {
+            evicted.increment();
+          }
+        });
+  }
+
+  /** Loads device models so per-model timeouts apply; re-run periodically to pick up new devices. */
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(
+      initialDelayString = "${telemetry.heartbeat.model-refresh-ms:60000}",
+      fixedDelayString = "${telemetry.heartbeat.model-refresh-ms:60000}")
+  public void refreshModels() {
+    if (modelTimeouts.isEmpty()) {
+      return;
+    }
+    try {
+      Map<String, Long> timeouts = new HashMap<>();
+      for (UavDevice device :
+          deviceMapper.selectList(
+              new LambdaQueryWrapper<UavDevice>().select(UavDevice::getUavCode, UavDevice::getModel))) {
+        Long timeout = device.getModel() == null ? null : modelTimeouts.get(device.getModel());
+        if (timeout != null) {
+          timeouts.put(device.getUavCode(), timeout);
+        }
+      }
+      timeoutsByUav = timeouts;
+      // takes effect from each node's next deadline check
+      nodes.forEach((uavCode, node) -> node.timeoutMs = timeoutOf(uavCode));
+    } catch (Exception e) {
+      log.warn("Loading UAV models for heartbeat timeouts failed; keeping previous timeouts", e);
+    }
+  }
+
+  /** Applies the model timeout of a device registered through this node without waiting for a refresh. */
+  public void onDeviceRegistered(String uavCode, String model) {
+    Long timeout = model == null ? null : modelTimeouts.get(model);
+    if (timeout == null) {
+      return;
+    }
+    Map<String, Long> timeouts = new HashMap<>(timeoutsByUav);
+    timeouts.put(uavCode, timeout);
+    timeoutsByUav = timeouts;
+    HeartbeatTimerWheel.Node node = nodes.get(uavCode);
+    if (node != null) {
+      node.timeoutMs = timeout;
+    }
+  }
+
+  private long timeoutOf(String uavCode) {
+    return timeoutsByUav.getOrDefault(uavCode, defaultTimeoutMs);
+  }
+
+  /** {@code model=ms} pairs separated by commas, e.g. {@code M300=3000,Mavic3=8000}. */
+  private static Map<String, Long> parseModelTimeouts(String value) {
+    Map<String, Long> result = new HashMap<>();
+    for (String pair : value.split(",")) {
+      int eq = pair.lastIndexOf('=');
+      if (eq <= 0) {
+        continue;
+      }
+      try {
+        result.put(pair.substring(0, eq).trim(), Long.parseLong(pair.substring(eq + 1).trim()));
+      } catch (NumberFormatException e) {
+        log.warn("Ignoring invalid heartbeat timeout '{}'", pair);
+      }
+    }
+    return Map.copyOf(result);
+  }
+}
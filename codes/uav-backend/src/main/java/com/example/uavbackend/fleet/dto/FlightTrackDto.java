@@ -0,0 +1,15 @@
+package com.example.uavbackend.fleet.dto;
+
+/**
+ * 无人机近期航迹，按列返回（同一下标对应同一采样点，时间升序），前端可直接用于地图折线。
+ * 缺失的高度/速度/电量为 NaN。
+ */
+public record FlightTrackDto(
+    String uavCode,
+    int count,
+    long[] ts,
+    double[] lat,
+    double[] lng,
+    float[] alt,
+    float[] speed,
+    float[] battery) {}
@@ -0,0 +1,17 @@
+package com.example.uavbackend.fleet.dto;
+
+/**
+ * 单架无人机遥测链路质量（基于 seq 序号窗口统计）。lost 为跳号后仍未补到的帧数，
+ * reordered 为晚到但补上缺口的帧数，duplicates 为被丢弃的重复帧（QoS 1 重投），
+ * resets 为检测到序号重新计数（重连、重启）的次数；lastSeq 为当前最大序号。
+ */
+public record TelemetryLinkStatsDto(
+    String uavCode,
+    long lastSeq,
+    long received,
+    long duplicates,
+    long lost,
+    long reordered,
+    long resets,
+    double lossRate,
+    double reorderRate) {}
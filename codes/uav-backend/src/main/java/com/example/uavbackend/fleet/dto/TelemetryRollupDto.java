@@ -0,0 +1,18 @@
+package com.example.uavbackend.fleet.dto;
+
+/**
+ * 单个指标的分辨率汇总曲线，按列返回（同一下标为同一时间桶，时间升序）。resolution 为读取的汇总表
+ * （1s / 10s / 1m），stepMs 为桶宽，ts 为桶起点；samples 为桶内原始帧数，avg 按帧数加权。
+ */
+public record TelemetryRollupDto(
+    String uavCode,
+    String metric,
+    String resolution,
+    long stepMs,
+    int count,
+    long[] ts,
+    int[] samples,
+    double[] min,
+    double[] max,
+    double[] avg,
+    double[] last) {}
@@ -0,0 +1,7 @@
+package com.example.uavbackend.fleet.dto;
+
+/**
+ * 前端地图当前可视范围（经纬度包围盒），发送到 /app/telemetry/viewport。
+ * 任一字段为空表示取消视口订阅。
+ */
+public record TelemetryViewportRequest(Double minLat, Double minLng, Double maxLat, Double maxLng) {}
@@ -0,0 +1,9 @@
+package com.example.uavbackend.fleet.dto;
+
+import com.example.uavbackend.fleet.UavStatus;
+
+/**
+ * 无人机在线状态变化，推送到 /topic/uav-status。status 只会是 ONLINE 或 OFFLINE；
+ * lastSeen 为最后一帧遥测的接收时间，ts 为判定时间（毫秒）。
+ */
+public record UavStatusEvent(String uavCode, UavStatus status, long lastSeen, long ts) {}
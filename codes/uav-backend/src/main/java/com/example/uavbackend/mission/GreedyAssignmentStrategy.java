@@ -0,0 +1,30 @@
+package com.example.uavbackend.mission;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/** Each mission, in queue order, takes the first ready UAV of its list that is still free. */
+@Component
+@ConditionalOnProperty(name = "mission.dispatch.strategy", havingValue = "greedy")
+class GreedyAssignmentStrategy implements MissionAssignmentStrategy {
+  @Override
+  public List<Assignment> assign(List<MissionQueueItem> items, Predicate<String> ready) {
+    List<Assignment> result = new ArrayList<>();
+    Set<String> chosen = new HashSet<>();
+    for (MissionQueueItem item : items) {
+      for (String uavCode : item.getUavCodes()) {
+        if (!chosen.contains(uavCode) && ready.test(uavCode)) {
+          chosen.add(uavCode);
+          result.add(new Assignment(item, uavCode));
+          break;
+        }
+      }
+    }
+    return result;
+  }
+}
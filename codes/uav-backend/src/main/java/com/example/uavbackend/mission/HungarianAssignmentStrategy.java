@@ -0,0 +1,145 @@
+package com.example.uavbackend.mission;
+
+import com.example.uavbackend.telemetry.TelemetryFrame;
+import com.example.uavbackend.telemetry.TelemetrySnapshotStore;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Solves the whole queue head at once: a queued-missions × ready-UAVs cost matrix is minimised with
+ * {@link HungarianSolver}, so a mission is not starved just because an earlier one took the UAV it
+ * needed.
+ *
+ * <p>Cost of a pair, in kilometre-equivalents: distance from the UAV's last reported position to the
+ * first route point, plus {@code battery-weight-km × (1 − battery/100)}, minus {@code
+ * priority-weight-km × priority} (HIGH=3 … LOW=1). UAVs outside a mission's {@code uavCodes} get a
+ * prohibitive cost, which makes the solver maximise the number of feasible pairs first.
+ *
+ * <p>The priority term is the same for every UAV in a mission's row, so it never changes which UAV
+ * a mission gets; it only decides which missions get one. When every mission in the head can be
+ * served, priority has no effect and pairs are chosen by distance and battery alone. When ready
+ * UAVs are scarce (more missions than UAVs, or missions competing for the same listed UAVs), a
+ * mission is left waiting only if that saves more than {@code priority-weight-km} per priority
+ * level in distance and battery.
+ */
+@Component
+@ConditionalOnProperty(name = "mission.dispatch.strategy", havingValue = "hungarian", matchIfMissing = true)
+class HungarianAssignmentStrategy implements MissionAssignmentStrategy {
+  static final double FORBIDDEN = 1e9;
+  private static final double EARTH_RADIUS_KM = 6371.0;
+
+  private final TelemetrySnapshotStore snapshotStore;
+  private final double batteryWeightKm;
+  private final double priorityWeightKm;
+  private final double unknownDistanceKm;
+
+  HungarianAssignmentStrategy(
+      TelemetrySnapshotStore snapshotStore,
+      @Value("${mission.dispatch.battery-weight-km:10}") double batteryWeightKm,
+      @Value("${mission.dispatch.priority-weight-km:100}") double priorityWeightKm,
+      @Value("${mission.dispatch.unknown-distance-km:50}") double unknownDistanceKm) {
+    this.snapshotStore = snapshotStore;
+    this.batteryWeightKm = batteryWeightKm;
+    this.priorityWeightKm = priorityWeightKm;
+    this.unknownDistanceKm = unknownDistanceKm;
+  }
+
+  @Override
+  public List<Assignment> assign(List<MissionQueueItem> items, Predicate<String> ready) {
+    Map<String, Integer> uavIndex = new LinkedHashMap<>();
+    for (MissionQueueItem item : items) {
+      for (String uavCode : item.getUavCodes()) {
+        if (!uavIndex.containsKey(uavCode) && ready.test(uavCode)) {
+          uavIndex.put(uavCode, uavIndex.size());
+        }
+      }
+    }
+    if (items.isEmpty() || uavIndex.isEmpty()) {
+      return List.of();
+    }
+    String[] uavCodes = uavIndex.keySet().toArray(new String[0]);
+    double[][] cost = buildCostMatrix(items, uavCodes, uavIndex);
+    int[] uavOfItem = solve(cost);
+    List<Assignment> result = new ArrayList<>();
+    for (int i = 0; i < uavOfItem.length; i++) {
+      int j = uavOfItem[i];
+      if (j >= 0 && cost[i][j] < FORBIDDEN) {
+        result.add(new Assignment(items.get(i), uavCodes[j]));
+      }
+    }
+    return result;
+  }
+
+  double[][] buildCostMatrix(List<MissionQueueItem> items, String[] uavCodes, Map<String, Integer> uavIndex) {
+    int k = uavCodes.length;
+    double[] lat = new double[k];
+    double[] lng = new double[k];
+    double[] batteryCost = new double[k];
+    for (int j = 0; j < k; j++) {
+      TelemetryFrame frame = snapshotStore.get(uavCodes[j]);
+      lat[j] = frame == null ? Double.NaN : frame.lat();
+      lng[j] = frame == null ? Double.NaN : frame.lng();
+      double battery = frame == null || Double.isNaN(frame.battery()) ? 50 : frame.battery();
+      batteryCost[j] = batteryWeightKm * (1 - Math.max(0, Math.min(100, battery)) / 100);
+    }
+    double[][] cost = new double[items.size()][k];
+    for (int i = 0; i < items.size(); i++) {
+      MissionQueueItem item = items.get(i);
+      double[] row = cost[i];
+      Arrays.fill(row, FORBIDDEN);
+      List<List<Double>> route = item.getRoute();
+      List<Double> start = route == null || route.isEmpty() ? null : route.get(0);
+      double priorityBonus = priorityWeightKm * MissionQueueItem.priorityWeight(item.getPriority());
+      for (String uavCode : item.getUavCodes()) {
+        Integer j = uavIndex.get(uavCode);
+        if (j == null) {
+          continue;
+        }
+        double distance =
+            start == null || start.size() < 2 || Double.isNaN(lat[j]) || Double.isNaN(lng[j])
+                ? unknownDistanceKm
+                : haversineKm(lat[j], lng[j], start.get(0), start.get(1));
+        row[j] = distance + batteryCost[j] - priorityBonus;
+      }
+    }
+    return cost;
+  }
+
+  /** Column per row, or -1; transposes when there are more missions than UAVs. */
+  static int[] solve(double[][] cost) {
+    int n = cost.length;
+    int k = cost[0].length;
+    if (n <= k) {
+      return HungarianSolver.solve(cost);
+    }
+    double[][] transposed = new double[k][n];
+    for (int i = 0; i < n; i++) {
+      for (int j = 0; j < k; j++) {
+        transposed[j][i] = cost[i][j];
+      }
+    }
+    int[] itemOfUav = HungarianSolver.solve(transposed);
+    int[] uavOfItem = new int[n];
+    Arrays.fill(uavOfItem, -1);
+    for (int j = 0; j < k; j++) {
+      uavOfItem[itemOfUav[j]] = j;
+    }
+    return uavOfItem;
+  }
+
+  static double haversineKm(double lat1, double lng1, double lat2, double lng2) {
+    double dLat = Math.toRadians(lat2 - lat1);
+    double dLng = Math.toRadians(lng2 - lng1);
+    double a =
+        Math.sin(dLat / 2) * Math.sin(dLat / 2)
+            + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+    return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+  }
+}
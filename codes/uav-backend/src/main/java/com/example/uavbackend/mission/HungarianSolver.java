@@ -0,0 +1,78 @@
+package com.example.uavbackend.mission;
+
+import java.util.Arrays;
+
+/**
+ * Minimum-cost assignment on a dense {@code rows × cols} matrix with {@code rows <= cols}
+ * (Hungarian method with potentials, O(rows² · cols)).
+ */
+final class HungarianSolver {
+  private HungarianSolver() {}
+
+  /**
+   * @param cost row-major costs, {@code cost[i][j]} for row {@code i} and column {@code j}
+   * @return the column assigned to each row
+   */
+  static int[] solve(double[][] cost) {
+    int n = cost.length;
+    int m = n == 0 ? 0 : cost[0].length;
+    if (n > m) {
+      throw new IllegalArgumentException("rows must not exceed columns: " + n + " > " + m);
+    }
+    // 1-based arrays as in the textbook formulation; column 0 is a virtual start column
+    double[] u = new double[n + 1];
+    double[] v = new double[m + 1];
+    int[] rowOfCol = new int[m + 1];
+    int[] way = new int[m + 1];
+    double[] minv = new double[m + 1];
+    boolean[] used = new boolean[m + 1];
+    for (int i = 1; i <= n; i++) {
+      rowOfCol[0] = i;
+      int j0 = 0;
+      Arrays.fill(minv, Double.POSITIVE_INFINITY);
+      Arrays.fill(used, false);
+      do {
+        used[j0] = true;
+        int i0 = rowOfCol[j0];
+        double[] row = cost[i0 - 1];
+        double ui0 = u[i0];
+        double delta = Double.POSITIVE_INFINITY;
+        int j1 = 0;
+        for (int j = 1; j <= m; j++) {
+          if (!used[j]) {
+            double cur = row[j - 1] - ui0 - v[j];
+            if (cur < minv[j]) {
+              minv[j] = cur;
+              way[j] = j0;
+            }
+            if (minv[j] < delta) {
+              delta = minv[j];
+              j1 = j;
+            }
+          }
+        }
+        for (int j = 0; j <= m; j++) {
+          if (used[j]) {
+            u[rowOfCol[j]] += delta;
+            v[j] -= delta;
+          } else {
+            minv[j] -= delta;
+          }
+        }
+        j0 = j1;
+      } while (rowOfCol[j0] != 0);
+      do {
+        int j1 = way[j0];
+        rowOfCol[j0] = rowOfCol[j1];
+        j0 = j1;
+      } while (j0 != 0);
+    }
+    int[] colOfRow = new int[n];
+    for (int j = 1; j <= m; j++) {
+      if (rowOfCol[j] != 0) {
+        colOfRow[rowOfCol[j] - 1] = j - 1;
+      }
+    }
+    return colOfRow;
+  }
+}
@@ -0,0 +1,20 @@
+package com.example.uavbackend.mission;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Matches queued missions to ready UAVs for one dispatch pass. Selected by {@code
+ * mission.dispatch.strategy} ({@code greedy} or {@code hungarian}).
+ */
+interface MissionAssignmentStrategy {
+  record Assignment(MissionQueueItem item, String uavCode) {}
+
+  /**
+   * @param items queue head in priority order
+   * @param ready whether a UAV can take a mission right now
+   * @return at most one UAV per mission and one mission per UAV, each UAV taken from the mission's
+   *     own {@code uavCodes}; returned in the order commands should be sent
+   */
+  List<Assignment> assign(List<MissionQueueItem> items, Predicate<String> ready);
+}
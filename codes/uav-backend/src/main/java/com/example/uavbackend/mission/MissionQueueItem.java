@@ -0,0 +1,32 @@
+package com.example.uavbackend.mission;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@RequiredArgsConstructor
+class MissionQueueItem {
+  private String missionCode;
+  private List<String> uavCodes;
+  private List<List<Double>> route;
+  private String priority;
+  private long enqueuedAt;
+  private Long dispatchedAt;
+  /** UAV the start command went to; set together with {@code dispatchedAt}. */
+  private String dispatchedUav;
+
+  static int priorityWeight(String priority) {
+    if (priority == null || priority.isBlank()) {
+      return 0;
+    }
+    return switch (priority) {
+      case "HIGH", "high" -> 3;
+      case "MEDIUM", "medium" -> 2;
+      case "LOW", "low" -> 1;
+      default -> 0;
+    };
+  }
+}
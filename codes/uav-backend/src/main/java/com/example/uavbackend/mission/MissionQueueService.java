@@ -1,25 +1,27 @@
 package com.example.uavbackend.mission;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.example.uavbackend.fleet.TelemetryService;
+import com.example.uavbackend.config.ScheduledJobMonitor;
+import com.example.uavbackend.config.SchedulingConfig;
+import com.example.uavbackend.fleet.ClusterTelemetryReader;
 import com.example.uavbackend.fleet.UavDevice;
 import com.example.uavbackend.fleet.UavDeviceMapper;
 import com.example.uavbackend.mqtt.MqttCommandPublisher;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.example.uavbackend.mqtt.TelemetryClusterRouter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
-import lombok.AllArgsConstructor;
-import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
@@ -30,18 +32,29 @@ import org.springframework.util.StringUtils;
 @RequiredArgsConstructor
 @Slf4j
 public class MissionQueueService {
-  private static final String KEY_PREFIX = "mission:queue:";
+  /** A dispatched mission that is never confirmed by telemetry leaves the queue after this long. */
   private static final long QUEUE_TTL_MS = 10 * 60 * 1000;
+  private static final long DISPATCH_INTERVAL_MS = 3000;
 
-  private final StringRedisTemplate redisTemplate;
+  private final RedisMissionQueue queue;
   private final ObjectMapper objectMapper = new ObjectMapper();
   private final MissionMapper missionMapper;
   private final MissionUavAssignmentMapper assignmentMapper;
   private final UavDeviceMapper uavDeviceMapper;
-  private final TelemetryService telemetryService;
+  private final UavAvailabilityIndex availabilityIndex;
+  private final MissionAssignmentStrategy assignmentStrategy;
   private final MqttCommandPublisher mqttCommandPublisher;
+  private final ScheduledJobMonitor jobMonitor;
   private final SimpMessagingTemplate messagingTemplate;
   private final com.example.uavbackend.analytics.MissionDataAggregator dataAggregator;
+  private final TelemetryClusterRouter clusterRouter;
+  private final ClusterTelemetryReader clusterReader;
+
+  /** Missions whose start command is still waiting for the broker's acknowledgement, to their UAV. */
+  private final Map<String, String> inFlight = new ConcurrentHashMap<>();
+
+  @Value("${mission.queue.head-size:200}")
+  private int headSize;
 
   public void enqueue(Mission mission, List<List<Double>> route, List<UavDevice> devices, String priority) {
         MissionQueueItem item = new MissionQueueItem();
@@ -51,10 +64,11 @@ public class MissionQueueService {
         item.setPriority(normalizePriority(priority)); // HIGH/MEDIUM/LOW
         item.setEnqueuedAt(Instant.now().toEpochMilli());
         item.setDispatchedAt(null);
+        availabilityIndex.assign(mission.getMissionCode(), item.getUavCodes());
         try {
             String json = objectMapper.writeValueAsString(item);
             log.info("Queue mission payload: {}", json);
-            redisTemplate.opsForValue().set(KEY_PREFIX + mission.getMissionCode(), json);
+            queue.add(item);
             log.info("Mission queued missionCode={}, uavs={}, priority={}", mission.getMissionCode(), item.getUavCodes(),
                     item.getPriority());
         } catch (Exception ignored) {
@@ -63,107 +77,111 @@ public class MissionQueueService {
     }
 
   public void removeFromQueue(String missionCode) {
-    redisTemplate.delete(KEY_PREFIX + missionCode);
+    queue.remove(missionCode);
   }
 
-  @Scheduled(fixedDelay = 3000)
+  @EventListener(ApplicationReadyEvent.class)
+  public void migrateLegacyQueue() {
+    try {
+      int migrated = queue.migrateLegacyKeys();
+      if (migrated > 0) {
+        log.info("Migrated {} queued missions into the sorted-set queue", migrated);
+      }
+    } catch (Exception e) {
+      log.warn("Legacy mission queue migration skipped", e);
+    }
+  }
+
+  @Scheduled(fixedDelay = DISPATCH_INTERVAL_MS, scheduler = SchedulingConfig.MISSION_DISPATCH)
   public void processQueue() {
-    Set<String> keys = redisTemplate.keys(KEY_PREFIX + "*");
-    if (keys == null || keys.isEmpty()) {
+    jobMonitor.run("mission.dispatch", DISPATCH_INTERVAL_MS, this::dispatchPass);
+  }
+
+  private void dispatchPass() {
+    // 集群模式下只有持有调度租约的节点下发任务
+    if (!clusterRouter.isDispatchLeader()) {
       return;
     }
-    // 获取所有排队任务
-    List<MissionQueueItem> items = new ArrayList<>();
-    for (String key : keys) {
-      try {
-        String json = redisTemplate.opsForValue().get(key);
-        if (!StringUtils.hasText(json)) {
-          continue;
-        }
-        MissionQueueItem item = objectMapper.readValue(json, MissionQueueItem.class);
-        items.add(item);
-      } catch (Exception ignored) {
-      }
-    }
+    // 只查看队首窗口，队列已按优先级、入队时间排好序
+    List<MissionQueueItem> items = queue.head(headSize);
     if (items.isEmpty()) {
       return;
     }
-    items.sort(Comparator.comparingInt((MissionQueueItem i) -> priorityWeight(i.getPriority()))
-        .reversed()
-        .thenComparingLong(MissionQueueItem::getEnqueuedAt));
-    log.info("排序后的任务队列:"+items.toString());
-    var chosen = new java.util.HashSet<String>();
+    long now = Instant.now().toEpochMilli();
+    List<MissionQueueItem> pending = new ArrayList<>(items.size());
+    // 已下发（或正在下发）的任务不再参与匹配，其无人机在确认前视为占用
+    Set<String> busyUavs = new HashSet<>(inFlight.values());
     for (MissionQueueItem item : items) {
-      Optional<String> readyUav =
-          item.getUavCodes().stream().filter(u -> !chosen.contains(u)).filter(this::isUavReady).findFirst();
-      if (readyUav.isEmpty()) {
-        log.debug("No ready UAV for mission {}", item.getMissionCode());
+      if (item.getDispatchedAt() != null) {
+        if (now - item.getDispatchedAt() > QUEUE_TTL_MS) {
+          log.info("Dispatched mission {} was never confirmed, dropping it from the queue", item.getMissionCode());
+          queue.remove(item.getMissionCode());
+        } else if (item.getDispatchedUav() != null) {
+          busyUavs.add(item.getDispatchedUav());
+        }
         continue;
       }
-      log.info("可供选择的无人机"+readyUav.toString());
-      String uavCode = readyUav.get();
-      chosen.add(uavCode);
-      sendCommandAndStart(item, uavCode);
+      if (!inFlight.containsKey(item.getMissionCode())) {
+        pending.add(item);
+      }
+    }
+    if (pending.isEmpty()) {
+      return;
+    }
+    // 其他节点负责的无人机只在 Redis 镜像里可见，调度前批量刷新其在线状态
+    if (clusterRouter.isEnabled()) {
+      for (MissionQueueItem item : pending) {
+        availabilityIndex.assign(item.getMissionCode(), item.getUavCodes());
+      }
+      clusterReader
+          .readRemoteFrames(pending.stream().flatMap(i -> i.getUavCodes().stream()).collect(Collectors.toSet()))
+          .values()
+          .forEach(availabilityIndex::onFrame);
+    }
+    // 一次性为整个队首窗口匹配任务与无人机
+    for (MissionAssignmentStrategy.Assignment assignment : assignmentStrategy.assign(pending, uavCode -> !busyUavs.contains(uavCode) && isUavReady(uavCode))) {
+      log.info("可供选择的无人机" + assignment.uavCode());
+      sendCommandAndStart(assignment.item(), assignment.uavCode());
     }
   }
 
   private void sendCommandAndStart(MissionQueueItem item, String uavCode) {
-    try {
-      Map<String, Object> payload =
-          Map.of(
-              "type", "mission.start",
-              "missionCode", item.getMissionCode(),
-              "uavCode", uavCode,
-              "route", item.getRoute());
-      mqttCommandPublisher.publish(uavCode, payload);
-      log.info("Dispatch mission.start missionCode={} to uav={} points={}", item.getMissionCode(), uavCode, item.getRoute().size());
-      item.setDispatchedAt(Instant.now().toEpochMilli());
-      // 写回 redis，标记已下发但仍处于排队键，等待遥测确认
-      redisTemplate
-          .opsForValue()
-          .set(KEY_PREFIX + item.getMissionCode(), objectMapper.writeValueAsString(item), QUEUE_TTL_MS);
-    } catch (Exception e) {
-      // 如果发送失败，不要删除队列，等下次调度
-    }
+    Map<String, Object> payload =
+        Map.of(
+            "type", "mission.start",
+            "missionCode", item.getMissionCode(),
+            "uavCode", uavCode,
+            "route", item.getRoute());
+    // 等待 broker 确认期间不再重复调度该任务
+    inFlight.put(item.getMissionCode(), uavCode);
+    mqttCommandPublisher
+        .publish(uavCode, payload)
+        .whenComplete(
+            (v, e) -> {
+              try {
+                if (e != null) {
+                  // 如果发送失败，不要删除队列，等下次调度
+                  log.warn("Dispatch mission.start failed missionCode={} uav={}", item.getMissionCode(), uavCode, e);
+                  return;
+                }
+                log.info("Dispatch mission.start missionCode={} to uav={} points={}", item.getMissionCode(), uavCode, item.getRoute().size());
+                item.setDispatchedAt(Instant.now().toEpochMilli());
+                item.setDispatchedUav(uavCode);
+                // 写回 redis，标记已下发但仍在队列中，等待遥测确认；已出队（遥测已确认或任务取消）则不再写回
+                if (!queue.update(item)) {
+                  log.debug("Mission {} left the queue before its dispatch was recorded", item.getMissionCode());
+                }
+              } catch (Exception ex) {
+                log.warn("Failed to mark mission {} as dispatched", item.getMissionCode(), ex);
+              } finally {
+                inFlight.remove(item.getMissionCode());
+              }
+            });
   }
 
   private boolean isUavReady(String uavCode) {
-    UavDevice device =
-        uavDeviceMapper.selectOne(new LambdaQueryWrapper<UavDevice>().eq(UavDevice::getUavCode, uavCode));
-    if (device == null) {
-      return false;
-    }
-    // 在线判定：有遥测且 status 为 ONLINE 或无 status
-    String payload = telemetryService.readTelemetry(uavCode);
-    if (!telemetryService.isOnline(payload)) {
-      return false;
-    }
-    // 不被 RUNNING 任务占用
-    List<MissionUavAssignment> assignments =
-        assignmentMapper.selectList(new LambdaQueryWrapper<MissionUavAssignment>().eq(MissionUavAssignment::getUavId, device.getId()));
-    if (assignments.isEmpty()) {
-      return true;
-    }
-    List<Long> missionIds = assignments.stream().map(MissionUavAssignment::getMissionId).toList();
-    List<Mission> missions = missionMapper.selectBatchIds(missionIds);
-    if (missions == null) {
-      return true;
-    }
-
-      try{
-          JsonNode node = objectMapper.readTree(payload);
-          if (node.hasNonNull("status")) {
-              String s = node.get("status").asText("");
-              return "ONLINE".equalsIgnoreCase(s)
-                      || "IDLE".equalsIgnoreCase(s);
-          }else{
-              return true;
-          }
-      }catch (Exception e){
-         // ignore
-      }
-
-    return missions.stream().noneMatch(m -> MissionStatus.RUNNING.name().equals(m.getStatus()));
+    // 内存索引判定：已登记、在线、空闲，不访问数据库
+    return availabilityIndex.isReady(uavCode);
   }
 
   public void onTelemetryStatus(String uavCode, String status, String missionId) {
@@ -252,6 +270,7 @@ public class MissionQueueService {
       return;
     }
     mission.setStatus(status.name());
+    availabilityIndex.onMissionStatus(missionCode, status);
     if (status == MissionStatus.COMPLETED) {
       mission.setProgress(100);
       // 完成时生成数据采集记录
@@ -266,30 +285,6 @@ public class MissionQueueService {
     }
   }
 
-  private int priorityWeight(String priority) {
-    if (!StringUtils.hasText(priority)) {
-      return 0;
-    }
-    return switch (priority) {
-      case "HIGH", "high" -> 3;
-      case "MEDIUM", "medium" -> 2;
-      case "LOW", "low" -> 1;
-      default -> 0;
-    };
-  }
-
-  @Data
-  @AllArgsConstructor
-  @RequiredArgsConstructor
-  private static class MissionQueueItem {
-    private String missionCode;
-    private List<String> uavCodes;
-    private List<List<Double>> route;
-    private String priority;
-    private long enqueuedAt;
-    private Long dispatchedAt;
-  }
-
     private String normalizePriority(String priority) {
         if (!StringUtils.hasText(priority)) return "MEDIUM";
         String p = priority.trim().toUpperCase();
@@ -37,6 +37,7 @@ public class MissionService {
   private final SimpMessagingTemplate messagingTemplate;
   private final MqttCommandPublisher mqttCommandPublisher;
   private final AlertRuleMapper alertRuleMapper;
+  private final UavAvailabilityIndex availabilityIndex;
 
   public List<MissionDto> list(List<String> statuses) {
     LambdaQueryWrapper<Mission> wrapper = new LambdaQueryWrapper<>();
@@ -107,17 +108,21 @@ public class MissionService {
     if (mission != null) {
       mission.setStatus(MissionStatus.INTERRUPTED.name());
       missionMapper.updateById(mission);
+      availabilityIndex.onMissionStatus(missionCode, MissionStatus.INTERRUPTED);
       missionQueueService.removeFromQueue(mission.getMissionCode());
       // push interrupt command to assigned UAVs
       List<String> uavCodes = findAssignedUavCodes(mission.getId());
       for (String code : uavCodes) {
-        try {
-          mqttCommandPublisher.publish(
-              code, java.util.Map.of("type", "interrupt", "missionCode", missionCode));
-          log.info("Sent interrupt to UAV {} for mission {}", code, missionCode);
-        } catch (Exception e) {
-          log.warn("Failed to send interrupt to UAV {} for mission {}", code, missionCode, e);
-        }
+        mqttCommandPublisher
+            .publish(code, java.util.Map.of("type", "interrupt", "missionCode", missionCode))
+            .whenComplete(
+                (v, e) -> {
+                  if (e == null) {
+                    log.info("Sent interrupt to UAV {} for mission {}", code, missionCode);
+                  } else {
+                    log.warn("Failed to send interrupt to UAV {} for mission {}", code, missionCode, e);
+                  }
+                });
       }
       pushStatusUpdate(mission);
     }
@@ -0,0 +1,133 @@
+package com.example.uavbackend.mission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+/**
+ * Mission queue kept as a Redis sorted set of mission codes plus a hash of item payloads.
+ *
+ * <p>The score orders by priority weight first and enqueue time second, so {@code ZRANGE 0 n} is
+ * exactly the dispatch order and enqueue/remove are O(log n).
+ */
+@Slf4j
+@Component
+class RedisMissionQueue {
+  static final String INDEX_KEY = "mission:queue";
+  static final String ITEMS_KEY = "mission:queue-items";
+  /** Pre-ZSET layout: one string key per mission. */
+  private static final String LEGACY_PREFIX = "mission:queue:";
+  /** Larger than any epoch-millis timestamp, so weight always dominates enqueue time. */
+  private static final double WEIGHT_STRIDE = 1e13;
+  /** HSET only while the mission is still indexed, so a late update cannot revive a removed item. */
+  private static final RedisScript<Long> UPDATE_IF_QUEUED =
+      new DefaultRedisScript<>(
+          "if redis.call('zscore', KEYS[1], ARGV[1]) then redis.call('hset', KEYS[2], ARGV[1], ARGV[2]) return 1 end return 0",
+          Long.class);
+
+  private final StringRedisTemplate redisTemplate;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  RedisMissionQueue(StringRedisTemplate redisTemplate) {
+    this.redisTemplate = redisTemplate;
+  }
+
+  void add(MissionQueueItem item) throws Exception {
+    String json = objectMapper.writeValueAsString(item);
+    double score = (3 - MissionQueueItem.priorityWeight(item.getPriority())) * WEIGHT_STRIDE + item.getEnqueuedAt();
+    redisTemplate.execute(
+        new SessionCallback<List<Object>>() {
+          @Override
+          @SuppressWarnings({"unchecked", "rawtypes"})
+          public List<Object> execute(RedisOperations operations) {
+            operations.multi();
+            operations.opsForHash().put(ITEMS_KEY, item.getMissionCode(), json);
+            operations.opsForZSet().add(INDEX_KEY, item.getMissionCode(), score);
+            return operations.exec();
+          }
+        });
+  }
+
+  /**
+   * Rewrites the payload of an item that is still queued; its position is unchanged. Returns {@code
+   * false}, writing nothing, when the item has been removed meanwhile.
+   */
+  boolean update(MissionQueueItem item) throws Exception {
+    Long updated =
+        redisTemplate.execute(
+            UPDATE_IF_QUEUED, List.of(INDEX_KEY, ITEMS_KEY), item.getMissionCode(), objectMapper.writeValueAsString(item));
+    return updated != null && updated == 1;
+  }
+
+  void remove(String missionCode) {
+    redisTemplate.execute(
+        new SessionCallback<List<Object>>() {
+          @Override
+          @SuppressWarnings({"unchecked", "rawtypes"})
+          public List<Object> execute(RedisOperations operations) {
+            operations.multi();
+            operations.opsForZSet().remove(INDEX_KEY, missionCode);
+            operations.opsForHash().delete(ITEMS_KEY, missionCode);
+            return operations.exec();
+          }
+        });
+  }
+
+  /** First {@code limit} items in dispatch order. */
+  List<MissionQueueItem> head(int limit) {
+    Set<String> codes = redisTemplate.opsForZSet().range(INDEX_KEY, 0, limit - 1L);
+    if (codes == null || codes.isEmpty()) {
+      return List.of();
+    }
+    List<Object> keys = new ArrayList<>(codes);
+    List<Object> values = redisTemplate.opsForHash().multiGet(ITEMS_KEY, keys);
+    List<MissionQueueItem> items = new ArrayList<>(codes.size());
+    for (int i = 0; i < keys.size(); i++) {
+      Object json = values.get(i);
+      if (json == null) {
+        // index entry without payload, e.g. a crash between the two writes
+        redisTemplate.opsForZSet().remove(INDEX_KEY, keys.get(i));
+        continue;
+      }
+      try {
+        items.add(objectMapper.readValue(json.toString(), MissionQueueItem.class));
+      } catch (Exception e) {
+        log.warn("Drop unreadable queue item missionCode={}", keys.get(i), e);
+        remove(keys.get(i).toString());
+      }
+    }
+    return items;
+  }
+
+  /** Moves items written under the old one-key-per-mission layout into the sorted set. */
+  int migrateLegacyKeys() {
+    int migrated = 0;
+    ScanOptions options = ScanOptions.scanOptions().match(LEGACY_PREFIX + "*").count(200).build();
+    try (Cursor<String> cursor = redisTemplate.scan(options)) {
+      while (cursor.hasNext()) {
+        String key = cursor.next();
+        try {
+          String json = redisTemplate.opsForValue().get(key);
+          if (json != null) {
+            add(objectMapper.readValue(json, MissionQueueItem.class));
+            migrated++;
+          }
+          redisTemplate.delete(key);
+        } catch (Exception e) {
+          log.warn("Skip legacy queue key {}", key, e);
+        }
+      }
+    }
+    return migrated;
+  }
+}
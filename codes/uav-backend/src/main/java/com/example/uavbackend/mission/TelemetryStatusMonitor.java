@@ -1,150 +1,207 @@
 package com.example.uavbackend.mission;
 
-import com.example.uavbackend.fleet.TelemetryService;
-import com.example.uavbackend.alert.AlertRecord;
-import com.example.uavbackend.alert.AlertRecordMapper;
-import com.example.uavbackend.alert.AlertRule;
-import com.example.uavbackend.alert.AlertRuleCondition;
-import com.example.uavbackend.alert.AlertRuleConditionMapper;
-import com.example.uavbackend.alert.AlertRuleMapper;
+import com.example.uavbackend.config.ScheduledJobMonitor;
+import com.example.uavbackend.telemetry.TelemetryFrame;
+import com.example.uavbackend.telemetry.TelemetryFrameListener;
+import com.example.uavbackend.alert.AlertEvaluator;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import java.time.LocalDateTime;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import java.util.Map;
-import lombok.RequiredArgsConstructor;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.util.StringUtils;
-import com.example.uavbackend.mission.MissionMapper;
 
+/**
+ * Detects per-UAV status/mission transitions at ingest time. Only an actual change of
+ * {@code status} or {@code missionId} reaches {@link MissionQueueService#onTelemetryStatus}, so
+ * database work scales with transitions instead of fleet size.
+ *
+ * <p>The ingest thread only compares and records the state; applying the transition and resolving
+ * the mission run on a single {@code mission-status} thread, in the order the transitions were
+ * seen. A failed transition is retried after {@code mission.status-monitor.retry-ms}, and the
+ * resolved mission (its {@code ruleId} in particular) is reloaded every {@code refresh-ms}, both
+ * triggered by the UAV's next frame. A status change that keeps the mission (PAUSED → EXECUTING)
+ * keeps the resolved mission too, so alert evaluation does not pause while the transition applies.
+ *
+ * <p>The state of a UAV that sent nothing for {@code idle-evict-ms} is dropped by a periodic sweep;
+ * its next frame is then handled as a transition again.
+ */
 @Component
-@RequiredArgsConstructor
 @Slf4j
-public class TelemetryStatusMonitor {
-  private final TelemetryService telemetryService;
+public class TelemetryStatusMonitor implements TelemetryFrameListener {
   private final MissionQueueService missionQueueService;
   private final MissionMapper missionMapper;
-  private final AlertRuleMapper alertRuleMapper;
-  private final AlertRuleConditionMapper conditionMapper;
-  private final AlertRecordMapper recordMapper;
+  private final AlertEvaluator alertEvaluator;
   private final com.example.uavbackend.analytics.MissionDataAggregator dataAggregator;
-  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final long refreshMs;
+  private final long retryMs;
+  private final long idleEvictMs;
+  private final long sweepIntervalMs;
+  private final ScheduledJobMonitor jobMonitor;
+  private final ThreadPoolExecutor executor;
+  private final Counter rejected;
+  private final Counter evicted;
 
-  @Scheduled(fixedDelay = 1000)
-  public void pollTelemetryStatus() {
-    Map<String, String> all = telemetryService.readAllTelemetry();
-    if (all.isEmpty()) {
-      return;
+  /**
+   * Last status/missionId seen per UAV. The ingest thread creates it; the status thread marks the
+   * transition applied and fills in the mission it resolved to.
+   */
+  private static final class UavState {
+    final String status;
+    final String missionId;
+    final AtomicBoolean queued = new AtomicBoolean();
+    volatile boolean applied;
+    volatile Mission mission;
+    // earliest receive time at which a frame retries the transition or reloads the mission
+    volatile long nextAttemptAt;
+    volatile long lastFrameAt;
+
+    UavState(String status, String missionId, Mission mission) {
+      this.status = status;
+      this.missionId = missionId;
+      this.mission = mission;
     }
-    all.forEach((uavCode, payload) -> {
-      try {
-        JsonNode node = objectMapper.readTree(payload);
-        String status = node.hasNonNull("status") ? node.get("status").asText(null) : null;
-        String missionId = node.hasNonNull("missionId") ? node.get("missionId").asText(null) : null;
-        if (StringUtils.hasText(status) || StringUtils.hasText(missionId)) {
-          if (log.isDebugEnabled()) {
-            log.debug("Telemetry status detect uav={}, status={}, missionId={}", uavCode, status, missionId);
-          }
-          missionQueueService.onTelemetryStatus(uavCode, status, missionId);
-        }
-        // 执行中任务的报警检测
-        if ("EXECUTING".equalsIgnoreCase(status) && StringUtils.hasText(missionId)) {
-          evaluateAlerts(uavCode, missionId, node.path("data"));
-          // 数据聚合：记录执行阶段的指标数据
-          Mission mission =
-              missionMapper.selectOne(
-                  new LambdaQueryWrapper<Mission>()
-                      .eq(Mission::getMissionCode, missionId)
-                      .or()
-                      .eq(Mission::getId, missionId));
-          if (mission != null && node.has("data") && node.get("data").isObject()) {
-            Map<String, Object> dataMap = objectMapper.convertValue(node.get("data"), Map.class);
-            dataAggregator.ingest(mission, uavCode, dataMap);
-          }
-        }
-      } catch (Exception ignored) {
-      }
-    });
   }
 
-  private void evaluateAlerts(String uavCode, String missionCodeOrId, JsonNode dataNode) {
-    Mission mission =
-        missionMapper.selectOne(
-            new LambdaQueryWrapper<Mission>()
-                .eq(Mission::getMissionCode, missionCodeOrId)
-                .or()
-                .eq(Mission::getId, missionCodeOrId));
-    if (mission == null || mission.getRuleId() == null) {
-      return;
+  private final Map<String, UavState> lastStates = new ConcurrentHashMap<>();
+
+  public TelemetryStatusMonitor(
+      MissionQueueService missionQueueService,
+      MissionMapper missionMapper,
+      AlertEvaluator alertEvaluator,
+      com.example.uavbackend.analytics.MissionDataAggregator dataAggregator,
+      MeterRegistry meterRegistry,
+      ScheduledJobMonitor jobMonitor,
+      @Value("${mission.status-monitor.queue-capacity:10000}") int queueCapacity,
+      @Value("${mission.status-monitor.refresh-ms:30000}") long refreshMs,
+      @Value("${mission.status-monitor.retry-ms:5000}") long retryMs,
+      @Value("${mission.status-monitor.idle-evict-ms:1800000}") long idleEvictMs,
+      @Value("${mission.status-monitor.sweep-interval-ms:60000}") long sweepIntervalMs) {
+    this.missionQueueService = missionQueueService;
+    this.missionMapper = missionMapper;
+    this.alertEvaluator = alertEvaluator;
+    this.dataAggregator = dataAggregator;
+    this.refreshMs = refreshMs;
+    this.retryMs = retryMs;
+    this.idleEvictMs = idleEvictMs;
+    this.sweepIntervalMs = sweepIntervalMs;
+    this.jobMonitor = jobMonitor;
+    this.executor =
+        new ThreadPoolExecutor(
+            1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(Math.max(queueCapacity, 1)),
+            runnable -> {
+              Thread thread = new Thread(runnable, "mission-status");
+              thread.setDaemon(true);
+              return thread;
+            });
+    this.rejected = meterRegistry.counter("mission.status.rejected");
+    this.evicted = meterRegistry.counter("mission.status.evicted");
+  }
+
+  @Override
+  public void onFrame(TelemetryFrame frame) {
+    String uavCode = frame.uavCode();
+    String status = frame.status();
+    String missionId = frame.missionId();
+    UavState state = lastStates.get(uavCode);
+    if (state == null
+        || !Objects.equals(state.status, status)
+        || !Objects.equals(state.missionId, missionId)) {
+      log.debug("Telemetry status transition uav={}, {} -> {}, missionId={}", uavCode,
+          state == null ? null : state.status, status, missionId);
+      Mission sameMission = state != null && Objects.equals(state.missionId, missionId) ? state.mission : null;
+      state = new UavState(status, missionId, sameMission);
+      lastStates.put(uavCode, state);
+      submit(uavCode, state, frame.receivedAt());
+    } else if (frame.receivedAt() >= state.nextAttemptAt) {
+      submit(uavCode, state, frame.receivedAt());
+    }
+    state.lastFrameAt = frame.receivedAt();
+    // 执行中任务的报警检测与数据聚合
+    Mission mission = state.mission;
+    if ("EXECUTING".equals(status) && mission != null) {
+      alertEvaluator.evaluate(uavCode, mission.getMissionCode(), mission.getRuleId(), frame);
+      dataAggregator.ingest(mission, uavCode, frame);
     }
-    AlertRule rule = alertRuleMapper.selectById(mission.getRuleId());
-    if (rule == null) return;
-    var conditions =
-        conditionMapper.selectList(
-            new LambdaQueryWrapper<AlertRuleCondition>().eq(AlertRuleCondition::getRuleId, rule.getId()));
-    if (conditions.isEmpty()) {
+  }
+
+  private void submit(String uavCode, UavState state, long now) {
+    if (!state.queued.compareAndSet(false, true)) {
       return;
     }
-    boolean matched = "AND".equalsIgnoreCase(rule.getLogicOperator());
-    AlertRuleCondition matchedCond = null;
-    if ("AND".equalsIgnoreCase(rule.getLogicOperator())) {
-      matched = conditions.stream().allMatch(c -> compare(dataNode, c));
-      matchedCond = matched ? conditions.get(0) : null;
-    } else {
-      for (AlertRuleCondition c : conditions) {
-        if (compare(dataNode, c)) {
-          matched = true;
-          matchedCond = c;
-          break;
+    try {
+      executor.execute(() -> apply(uavCode, state));
+    } catch (RejectedExecutionException e) {
+      state.queued.set(false);
+      state.nextAttemptAt = now + retryMs;
+      rejected.increment();
+    }
+  }
+
+  /** Runs on the status thread. */
+  private void apply(String uavCode, UavState state) {
+    try {
+      if (!state.applied) {
+        // every transition is applied, superseded or not: QUEUE -> RUNNING -> COMPLETED needs each step
+        if (state.status != null || state.missionId != null) {
+          missionQueueService.onTelemetryStatus(uavCode, state.status, state.missionId);
         }
+        state.applied = true;
       }
-    }
-    if (matched && matchedCond != null) {
-      // 防止重复刷：若已存在未处理的同规则、同任务记录则跳过
-      Long count =
-          recordMapper.selectCount(
-              new LambdaQueryWrapper<AlertRecord>()
-                  .eq(AlertRecord::getRuleId, rule.getId())
-                  .eq(AlertRecord::getMissionCode, mission.getMissionCode())
-                  .eq(AlertRecord::getProcessed, false));
-      if (count != null && count > 0) {
+      if (lastStates.get(uavCode) != state) {
         return;
       }
-      AlertRecord record = new AlertRecord();
-      record.setRuleId(rule.getId());
-      record.setMissionCode(mission.getMissionCode());
-      record.setUavCode(uavCode);
-      record.setMetricCode(matchedCond.getMetricCode());
-      record.setMetricValue(extractNumber(dataNode, matchedCond.getMetricCode()));
-      record.setTriggeredAt(LocalDateTime.now());
-      record.setProcessed(false);
-      recordMapper.insert(record);
-      log.info("Alert triggered rule={} mission={} uav={} metric={}", rule.getId(), mission.getMissionCode(), uavCode, matchedCond.getMetricCode());
+      if (state.missionId == null) {
+        state.nextAttemptAt = Long.MAX_VALUE;
+        return;
+      }
+      state.mission = findMission(state.missionId);
+      state.nextAttemptAt = System.currentTimeMillis() + refreshMs;
+    } catch (Exception e) {
+      state.nextAttemptAt = System.currentTimeMillis() + retryMs;
+      log.warn("Applying telemetry status failed uav={}, status={}, missionId={}; retrying in {} ms",
+          uavCode, state.status, state.missionId, retryMs, e);
+    } finally {
+      state.queued.set(false);
     }
   }
 
-  private boolean compare(JsonNode dataNode, AlertRuleCondition cond) {
-    double value = extractNumber(dataNode, cond.getMetricCode());
-    double threshold = cond.getThreshold() == null ? 0 : cond.getThreshold();
-    String cmp = cond.getComparator() == null ? "" : cond.getComparator().toUpperCase();
-    return switch (cmp) {
-      case "GT" -> value > threshold;
-      case "GTE" -> value >= threshold;
-      case "LT" -> value < threshold;
-      case "LTE" -> value <= threshold;
-      case "EQ" -> value == threshold;
-      default -> false;
-    };
+  @Scheduled(fixedDelayString = "${mission.status-monitor.sweep-interval-ms:60000}")
+  public void sweep() {
+    jobMonitor.run("mission.status.sweep", sweepIntervalMs, this::evictIdle);
   }
 
-  private double extractNumber(JsonNode node, String field) {
-    if (node == null || !node.has(field)) return 0;
-    try {
-      return node.get(field).asDouble();
-    } catch (Exception e) {
-      return 0;
-    }
+  private void evictIdle() {
+    long cutoff = System.currentTimeMillis() - idleEvictMs;
+    lastStates.forEach(
+        (uavCode, state) -> {
+          // a state still being applied is kept so the status thread finishes with it
+          if (state.lastFrameAt < cutoff && !state.queued.get() && lastStates.remove(uavCode, state)) {
+            evicted.increment();
+          }
+        });
+  }
+
+  private Mission findMission(String missionCodeOrId) {
+    return missionMapper.selectOne(
+        new LambdaQueryWrapper<Mission>()
+            .eq(Mission::getMissionCode, missionCodeOrId)
+            .or()
+            .eq(Mission::getId, missionCodeOrId));
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdown();
   }
 }
@@ -0,0 +1,151 @@
+package com.example.uavbackend.mission;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.example.uavbackend.fleet.UavDevice;
+import com.example.uavbackend.fleet.UavDeviceMapper;
+import com.example.uavbackend.telemetry.TelemetryFrame;
+import com.example.uavbackend.telemetry.TelemetryFrameListener;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory view of which UAVs can take a mission right now, so a dispatch pass needs no I/O.
+ *
+ * <p>Liveness and reported status come from telemetry; mission occupancy comes from mission status
+ * changes. Both are rebuilt from the database once the application is ready.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UavAvailabilityIndex implements TelemetryFrameListener {
+  private final UavDeviceMapper uavDeviceMapper;
+  private final MissionMapper missionMapper;
+  private final MissionUavAssignmentMapper assignmentMapper;
+
+  @Value("${telemetry.snapshot.ttl-ms:2000}")
+  private long onlineTtlMs;
+
+  private static final class Entry {
+    volatile boolean registered;
+    volatile long lastSeen;
+    volatile String status;
+    /** Codes of missions this UAV is assigned to that are queued or running. */
+    final Set<String> missions = ConcurrentHashMap.newKeySet();
+  }
+
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+  private final Set<String> runningMissions = ConcurrentHashMap.newKeySet();
+  private final Map<String, List<String>> missionUavs = new ConcurrentHashMap<>();
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuild() {
+    try {
+      List<UavDevice> devices = uavDeviceMapper.selectList(null);
+      Map<Long, String> codesById =
+          devices.stream().collect(Collectors.toMap(UavDevice::getId, UavDevice::getUavCode, (a, b) -> a));
+      devices.forEach(d -> entry(d.getUavCode()).registered = true);
+      List<Mission> active =
+          missionMapper.selectList(
+              new LambdaQueryWrapper<Mission>()
+                  .in(Mission::getStatus, MissionStatus.QUEUE.name(), MissionStatus.RUNNING.name()));
+      if (active.isEmpty()) {
+        return;
+      }
+      Map<Long, Mission> missionsById = active.stream().collect(Collectors.toMap(Mission::getId, Function.identity()));
+      Map<String, List<String>> uavsByMission =
+          assignmentMapper
+              .selectList(
+                  new LambdaQueryWrapper<MissionUavAssignment>()
+                      .in(MissionUavAssignment::getMissionId, missionsById.keySet()))
+              .stream()
+              .filter(a -> codesById.containsKey(a.getUavId()))
+              .collect(
+                  Collectors.groupingBy(
+                      a -> missionsById.get(a.getMissionId()).getMissionCode(),
+                      Collectors.mapping(a -> codesById.get(a.getUavId()), Collectors.toList())));
+      uavsByMission.forEach(this::assign);
+      active.stream()
+          .filter(m -> MissionStatus.RUNNING.name().equals(m.getStatus()))
+          .forEach(m -> runningMissions.add(m.getMissionCode()));
+      log.info("UAV availability index rebuilt, devices={}, activeMissions={}, running={}",
+          devices.size(), active.size(), runningMissions.size());
+    } catch (Exception e) {
+      log.warn("UAV availability index rebuild failed; it will fill from live updates", e);
+    }
+  }
+
+  @Override
+  public void onFrame(TelemetryFrame frame) {
+    Entry entry = entry(frame.uavCode());
+    entry.status = frame.status();
+    entry.lastSeen = frame.receivedAt();
+  }
+
+  /** Records that the given registered UAVs are candidates for a mission. */
+  public void assign(String missionCode, Collection<String> uavCodes) {
+    missionUavs.put(missionCode, List.copyOf(uavCodes));
+    for (String uavCode : uavCodes) {
+      Entry entry = entry(uavCode);
+      entry.registered = true;
+      entry.missions.add(missionCode);
+    }
+  }
+
+  public void onMissionStatus(String missionCode, MissionStatus status) {
+    switch (status) {
+      case RUNNING -> runningMissions.add(missionCode);
+      case QUEUE -> runningMissions.remove(missionCode);
+      case COMPLETED, INTERRUPTED -> {
+        runningMissions.remove(missionCode);
+        List<String> uavCodes = missionUavs.remove(missionCode);
+        if (uavCodes != null) {
+          for (String uavCode : uavCodes) {
+            Entry entry = entries.get(uavCode);
+            if (entry != null) {
+              entry.missions.remove(missionCode);
+            }
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Registered, reporting telemetry, and idle: a reported status must be ONLINE or IDLE, and
+   * without a status the UAV must not be on a running mission.
+   */
+  public boolean isReady(String uavCode) {
+    Entry entry = entries.get(uavCode);
+    if (entry == null || !entry.registered) {
+      return false;
+    }
+    if (System.currentTimeMillis() - entry.lastSeen > onlineTtlMs) {
+      return false;
+    }
+    String status = entry.status;
+    if (status != null) {
+      return "ONLINE".equals(status) || "IDLE".equals(status);
+    }
+    for (String missionCode : entry.missions) {
+      if (runningMissions.contains(missionCode)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private Entry entry(String uavCode) {
+    return entries.computeIfAbsent(uavCode, k -> new Entry());
+  }
+}
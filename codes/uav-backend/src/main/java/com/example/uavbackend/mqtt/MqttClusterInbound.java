@@ -0,0 +1,34 @@
+package com.example.uavbackend.mqtt;
+
+import java.util.List;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.integration.mqtt.inbound.MqttPahoMessageDrivenChannelAdapter;
+
+/** Starts and stops the inbound adapters of clustered ingest together, like a single adapter bean. */
+class MqttClusterInbound implements SmartLifecycle {
+  private final List<MqttPahoMessageDrivenChannelAdapter> adapters;
+
+  MqttClusterInbound(List<MqttPahoMessageDrivenChannelAdapter> adapters) {
+    this.adapters = List.copyOf(adapters);
+  }
+
+  @Override
+  public void start() {
+    adapters.forEach(MqttPahoMessageDrivenChannelAdapter::start);
+  }
+
+  @Override
+  public void stop() {
+    adapters.forEach(MqttPahoMessageDrivenChannelAdapter::stop);
+  }
+
+  @Override
+  public boolean isRunning() {
+    return adapters.stream().anyMatch(MqttPahoMessageDrivenChannelAdapter::isRunning);
+  }
+
+  @Override
+  public int getPhase() {
+    return adapters.isEmpty() ? DEFAULT_PHASE : adapters.get(0).getPhase();
+  }
+}
@@ -1,41 +1,195 @@
 package com.example.uavbackend.mqtt;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
-import lombok.RequiredArgsConstructor;
+import java.util.concurrent.CompletableFuture;
 import lombok.extern.slf4j.Slf4j;
-import org.eclipse.paho.client.mqttv3.IMqttClient;
+import org.eclipse.paho.client.mqttv3.DisconnectedBufferOptions;
+import org.eclipse.paho.client.mqttv3.IMqttActionListener;
+import org.eclipse.paho.client.mqttv3.IMqttAsyncClient;
+import org.eclipse.paho.client.mqttv3.IMqttToken;
+import org.eclipse.paho.client.mqttv3.MqttAsyncClient;
+import org.eclipse.paho.client.mqttv3.MqttConnectOptions;
+import org.eclipse.paho.client.mqttv3.MqttException;
 import org.eclipse.paho.client.mqttv3.MqttMessage;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.integration.mqtt.core.MqttPahoClientFactory;
 import org.springframework.stereotype.Component;
 
+/**
+ * Publishes UAV commands over a small pool of long-lived async Paho clients.
+ *
+ * <p>A UAV is always served by the same client (chosen by its code), and a client sends its
+ * messages in submission order, so commands for one topic arrive in order. Clients connect on first
+ * use and reconnect automatically; messages sent while a connection is being re-established are
+ * buffered by Paho.
+ */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class MqttCommandPublisher {
-  private final MqttPahoClientFactory mqttClientFactory;
+  private final MqttConnectOptions connectOptions;
   private final ObjectMapper objectMapper = new ObjectMapper();
+  private final Slot[] slots;
+  private final String brokerUrl;
+  private final String commandTopicPrefix;
 
-  @Value("${mqtt.broker-url}")
-  private String brokerUrl;
+  private static final class Slot {
+    final IMqttAsyncClient client;
+    // guarded by this: commands are handed to the client one after another
+    CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+    CompletableFuture<Void> connecting;
+    volatile boolean everConnected;
 
-  @Value("${mqtt.command-topic-prefix:uav/}")
-  private String commandTopicPrefix;
+    Slot(IMqttAsyncClient client) {
+      this.client = client;
+    }
+  }
+
+  public MqttCommandPublisher(
+      MqttPahoClientFactory mqttClientFactory,
+      MqttConnectOptions mqttConnectOptions,
+      @Value("${mqtt.broker-url}") String brokerUrl,
+      @Value("${mqtt.client-id}") String clientId,
+      @Value("${mqtt.command-topic-prefix:uav/}") String commandTopicPrefix,
+      @Value("${mqtt.command.pool-size:2}") int poolSize,
+      @Value("${mqtt.command.max-inflight:1000}") int maxInflight)
+      throws MqttException {
+    this.brokerUrl = brokerUrl;
+    this.commandTopicPrefix = commandTopicPrefix;
+    this.connectOptions = commandOptions(mqttConnectOptions, maxInflight);
+    this.slots = new Slot[Math.max(poolSize, 1)];
+    for (int i = 0; i < slots.length; i++) {
+      slots[i] = new Slot(mqttClientFactory.getAsyncClientInstance(brokerUrl, clientId + "-cmd-" + i));
+      if (slots[i].client instanceof MqttAsyncClient async) {
+        DisconnectedBufferOptions buffer = new DisconnectedBufferOptions();
+        buffer.setBufferEnabled(true);
+        buffer.setBufferSize(maxInflight);
+        buffer.setDeleteOldestMessages(false);
+        async.setBufferOpts(buffer);
+      }
+    }
+  }
 
-  public void publish(String uavCode, Map<String, Object> payload) throws Exception {
+  /**
+   * Sends a QoS 1 command to a UAV without blocking the caller.
+   *
+   * @return completes when the broker has acknowledged the message, or exceptionally if it could
+   *     not be sent
+   */
+  public CompletableFuture<Void> publish(String uavCode, Map<String, Object> payload) {
     String topic = commandTopicPrefix.endsWith("/")
         ? commandTopicPrefix + uavCode + "/command"
         : commandTopicPrefix + "/" + uavCode + "/command";
-    log.info("topic"+topic);
-    IMqttClient client = mqttClientFactory.getClientInstance(brokerUrl, "uav-command-" + uavCode);
-    if (!client.isConnected()) {
-      client.connect(mqttClientFactory.getConnectionOptions());
+    MqttMessage msg;
+    try {
+      msg = new MqttMessage(objectMapper.writeValueAsString(payload).getBytes(StandardCharsets.UTF_8));
+    } catch (Exception e) {
+      return CompletableFuture.failedFuture(e);
     }
-    byte[] body = objectMapper.writeValueAsString(payload).getBytes(StandardCharsets.UTF_8);
-    MqttMessage msg = new MqttMessage(body);
+    return enqueue(topic, uavCode, msg);
+  }
+
+  private CompletableFuture<Void> enqueue(String topic, String orderingKey, MqttMessage msg) {
     msg.setQos(1);
-    client.publish(topic, msg);
+    Slot slot = slots[Math.floorMod(orderingKey.hashCode(), slots.length)];
+    CompletableFuture<Void> delivered = new CompletableFuture<>();
+    synchronized (slot) {
+      CompletableFuture<Void> sent =
+          slot.tail
+              .thenCompose(v -> ensureConnected(slot))
+              .thenRun(() -> send(slot, topic, msg, delivered));
+      sent.whenComplete(
+          (v, e) -> {
+            if (e != null) {
+              delivered.completeExceptionally(e);
+            }
+          });
+      // a failed send must not block the commands queued behind it
+      slot.tail = sent.exceptionally(e -> null);
+    }
+    return delivered;
+  }
+
+  private void send(Slot slot, String topic, MqttMessage msg, CompletableFuture<Void> delivered) {
+    try {
+      slot.client.publish(topic, msg, null, new IMqttActionListener() {
+        @Override
+        public void onSuccess(IMqttToken token) {
+          delivered.complete(null);
+        }
+
+        @Override
+        public void onFailure(IMqttToken token, Throwable exception) {
+          delivered.completeExceptionally(exception);
+        }
+      });
+    } catch (MqttException e) {
+      throw new IllegalStateException("MQTT publish to " + topic + " failed", e);
+    }
+  }
+
+  private CompletableFuture<Void> ensureConnected(Slot slot) {
+    // once connected, Paho reconnects by itself and buffers messages in between
+    if (slot.everConnected || slot.client.isConnected()) {
+      return CompletableFuture.completedFuture(null);
+    }
+    synchronized (slot) {
+      if (slot.connecting != null && !slot.connecting.isCompletedExceptionally()) {
+        return slot.connecting;
+      }
+      CompletableFuture<Void> connecting = new CompletableFuture<>();
+      slot.connecting = connecting;
+      try {
+        slot.client.connect(connectOptions, null, new IMqttActionListener() {
+          @Override
+          public void onSuccess(IMqttToken token) {
+            slot.everConnected = true;
+            log.info("MQTT command client {} connected to {}", slot.client.getClientId(), brokerUrl);
+            connecting.complete(null);
+          }
+
+          @Override
+          public void onFailure(IMqttToken token, Throwable exception) {
+            log.warn("MQTT command client {} failed to connect to {}", slot.client.getClientId(), brokerUrl, exception);
+            connecting.completeExceptionally(exception);
+          }
+        });
+      } catch (MqttException e) {
+        connecting.completeExceptionally(e);
+      }
+      return connecting;
+    }
+  }
+
+  private static MqttConnectOptions commandOptions(MqttConnectOptions base, int maxInflight) {
+    // copy so the telemetry subscriber keeps its own settings
+    MqttConnectOptions options = new MqttConnectOptions();
+    options.setServerURIs(base.getServerURIs());
+    if (base.getUserName() != null) {
+      options.setUserName(base.getUserName());
+      options.setPassword(base.getPassword());
+    }
+    options.setAutomaticReconnect(true);
+    options.setCleanSession(base.isCleanSession());
+    options.setKeepAliveInterval(base.getKeepAliveInterval());
+    options.setConnectionTimeout(base.getConnectionTimeout());
+    options.setMaxInflight(maxInflight);
+    return options;
+  }
+
+  @PreDestroy
+  public void close() {
+    for (Slot slot : slots) {
+      try {
+        if (slot.client.isConnected()) {
+          slot.client.disconnect().waitForCompletion(2000);
+        }
+        slot.client.close();
+      } catch (MqttException e) {
+        log.debug("MQTT command client {} close failed", slot.client.getClientId(), e);
+      }
+    }
   }
 }
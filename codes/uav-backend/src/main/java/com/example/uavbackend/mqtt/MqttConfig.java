@@ -1,12 +1,15 @@
 package com.example.uavbackend.mqtt;
 
 import com.example.uavbackend.fleet.FleetService;
-import com.example.uavbackend.fleet.TelemetryService;
 import com.example.uavbackend.fleet.UavTelemetry;
+import com.example.uavbackend.telemetry.TelemetryIngestPipeline;
+import com.example.uavbackend.telemetry.TelemetrySegmentLog;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.eclipse.paho.client.mqttv3.MqttConnectOptions;
+import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.integration.annotation.ServiceActivator;
@@ -20,6 +23,8 @@ import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.MessageHandler;
 import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -45,7 +50,8 @@ public class MqttConfig {
   private static final Pattern UAV_TOPIC_PATTERN = Pattern.compile("uav/([^/]+)/telemetry");
 
   private final FleetService fleetService;
-  private final TelemetryService telemetryService;
+  private final TelemetryIngestPipeline ingestPipeline;
+  private final TelemetrySegmentLog segmentLog;
 
   @Bean
   public MqttConnectOptions mqttConnectOptions() {
@@ -72,12 +78,43 @@ public class MqttConfig {
   }
 
   @Bean
+  @ConditionalOnProperty(name = "mqtt.cluster.enabled", havingValue = "false", matchIfMissing = true)
   public MessageProducer inbound() {
+    return inboundAdapter(clientId, telemetryTopic);
+  }
+
+  /**
+   * Clustered ingest: {@code mqtt.cluster.adapters} clients share {@code $share/<group>/<topic>} with
+   * the other nodes, and one more receives the frames other nodes forward to this one.
+   */
+  @Bean
+  @ConditionalOnProperty(name = "mqtt.cluster.enabled", havingValue = "true")
+  public MqttClusterInbound clusterInbound(
+      TelemetryClusterRouter clusterRouter,
+      BeanFactory beanFactory,
+      @Value("${mqtt.cluster.group:uav-backend}") String group,
+      @Value("${mqtt.cluster.adapters:2}") int adapterCount) throws Exception {
+    String sharedTopic = "$share/" + group + "/" + telemetryTopic;
+    List<MqttPahoMessageDrivenChannelAdapter> adapters = new ArrayList<>();
+    for (int i = 0; i < Math.max(adapterCount, 1); i++) {
+      adapters.add(inboundAdapter(clusterRouter.nodeId() + "-in-" + i, sharedTopic));
+    }
+    adapters.add(inboundAdapter(clusterRouter.nodeId() + "-route", clusterRouter.routeTopicFilter()));
+    for (MqttPahoMessageDrivenChannelAdapter adapter : adapters) {
+      adapter.setBeanFactory(beanFactory);
+      adapter.afterPropertiesSet();
+    }
+    log.info("Clustered MQTT ingest, node={}, topic={}, adapters={}", clusterRouter.nodeId(), sharedTopic, adapterCount);
+    return new MqttClusterInbound(adapters);
+  }
+
+  private MqttPahoMessageDrivenChannelAdapter inboundAdapter(String adapterClientId, String topic) {
     MqttPahoMessageDrivenChannelAdapter adapter =
-        new MqttPahoMessageDrivenChannelAdapter(clientId, mqttClientFactory(), telemetryTopic);
+        new MqttPahoMessageDrivenChannelAdapter(adapterClientId, mqttClientFactory(), topic);
     adapter.setCompletionTimeout(5000);
     DefaultPahoMessageConverter converter = new DefaultPahoMessageConverter();
-    converter.setPayloadAsBytes(false);
+    // raw bytes: the decoder sniffs JSON / CBOR / MessagePack / gzip itself
+    converter.setPayloadAsBytes(true);
     adapter.setConverter(converter);
     adapter.setQos(1);
     adapter.setOutputChannel(mqttInputChannel());
@@ -86,19 +123,32 @@ public class MqttConfig {
 
   @Bean
   @ServiceActivator(inputChannel = "mqttInputChannel")
-  public MessageHandler handler() {
+  public MessageHandler handler(TelemetryClusterRouter clusterRouter) {
     return message -> {
       String topic = (String) message.getHeaders().get("mqtt_receivedTopic");
-      String payload = (String) message.getPayload();
+      byte[] payload = (byte[]) message.getPayload();
+      String routed = clusterRouter.routedUavCode(topic);
+      if (routed != null) {
+        // forwarded by another node because this one owns the UAV
+        segmentLog.append(routed, payload);
+        ingestPipeline.offer(routed, payload);
+        return;
+      }
       String uavCode = extractUavCode(topic);
       if (!StringUtils.hasText(uavCode)) {
         return;
       }
       try {
-        telemetryService.upsertTelemetry(uavCode, payload);
+        if (!clusterRouter.isLocal(uavCode)) {
+          clusterRouter.forward(uavCode, payload);
+          return;
+        }
+        // hand off only; decoding and storage run on the ingest thread, the replay log on its own
+        segmentLog.append(uavCode, payload);
+        ingestPipeline.offer(uavCode, payload);
 //        log.info("MQTT telemetry received, topic={}, uavCode={}, cachedToRedis=true", topic, uavCode);
       } catch (Exception e) {
-        log.error("MQTT telemetry handling failed, topic={}, uavCode={}, payload={}", topic, uavCode, payload, e);
+        log.error("MQTT telemetry handling failed, topic={}, uavCode={}, payloadBytes={}", topic, uavCode, payload.length, e);
       }
     };
   }
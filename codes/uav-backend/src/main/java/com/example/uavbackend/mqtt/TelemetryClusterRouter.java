@@ -0,0 +1,255 @@
+package com.example.uavbackend.mqtt;
+
+import com.example.uavbackend.config.ScheduledJobMonitor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides which backend node owns a UAV when telemetry ingest is clustered.
+ *
+ * <p>With {@code mqtt.cluster.enabled}, nodes read telemetry through an MQTT shared subscription,
+ * so a UAV's frames land on any node. All per-UAV state (snapshot, alerts, tracks, readiness) must
+ * live on one node, so each UAV is owned by exactly one live node, chosen by rendezvous hashing of
+ * the UAV code over the members. A node receiving a frame it does not own republishes it to the
+ * owner's route topic {@code <route-topic-prefix><nodeId>/<uavCode>} through the {@link
+ * TelemetryForwardPublisher}, which keeps ordering per UAV on clients separate from commands. Only the members that join or leave move UAVs between nodes.
+ *
+ * <p>Membership is a Redis sorted set of node ids scored by heartbeat time. Without Redis, or before
+ * the first heartbeat, a node keeps its last view and owns everything if it sees no members.
+ *
+ * <p>The same heartbeat keeps a dispatch lease ({@value #LEADER_KEY}, expiring after {@code
+ * node-ttl-ms}): only its holder runs the mission dispatch pass, so a queued mission is started by
+ * one node. The holder trusts its lease for half the TTL after the last successful renewal, so it
+ * stops dispatching before another node can take over. Nodes that set {@code
+ * mqtt.cluster.advertised-url} also publish it, so reads of in-memory per-UAV state can be sent to
+ * the owning node.
+ */
+@Slf4j
+@Component
+public class TelemetryClusterRouter {
+  static final String NODES_KEY = "uav:ingest:nodes";
+  static final String URLS_KEY = "uav:ingest:urls";
+  static final String LEADER_KEY = "uav:ingest:leader";
+  private static final long HEARTBEAT_MS = 2000;
+  private static final RedisScript<Long> RENEW_LEASE =
+      new DefaultRedisScript<>(
+          "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('pexpire', KEYS[1], ARGV[2]) end return 0",
+          Long.class);
+  private static final RedisScript<Long> RELEASE_LEASE =
+      new DefaultRedisScript<>(
+          "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) end return 0",
+          Long.class);
+
+  private final StringRedisTemplate redisTemplate;
+  private final TelemetryForwardPublisher publisher;
+  private final ScheduledJobMonitor jobMonitor;
+  private final boolean enabled;
+  private final String nodeId;
+  private final String routeTopicPrefix;
+  private final long nodeTtlMs;
+  private final String advertisedUrl;
+  private final Counter forwarded;
+
+  private volatile List<String> members = List.of();
+  private volatile Map<String, String> urls = Map.of();
+  private volatile long leaseValidUntil;
+
+  public TelemetryClusterRouter(
+      StringRedisTemplate redisTemplate,
+      TelemetryForwardPublisher publisher,
+      ScheduledJobMonitor jobMonitor,
+      MeterRegistry meterRegistry,
+      @Value("${mqtt.cluster.enabled:false}") boolean enabled,
+      @Value("${mqtt.cluster.node-id:${mqtt.client-id}}") String nodeId,
+      @Value("${mqtt.cluster.route-topic-prefix:uav-backend/route/}") String routeTopicPrefix,
+      @Value("${mqtt.cluster.node-ttl-ms:10000}") long nodeTtlMs,
+      @Value("${mqtt.cluster.advertised-url:}") String advertisedUrl) {
+    this.redisTemplate = redisTemplate;
+    this.publisher = publisher;
+    this.jobMonitor = jobMonitor;
+    this.enabled = enabled;
+    this.nodeId = nodeId;
+    this.routeTopicPrefix = routeTopicPrefix.endsWith("/") ? routeTopicPrefix : routeTopicPrefix + "/";
+    this.nodeTtlMs = nodeTtlMs;
+    this.advertisedUrl = advertisedUrl.endsWith("/") ? advertisedUrl.substring(0, advertisedUrl.length() - 1) : advertisedUrl;
+    this.forwarded = meterRegistry.counter("mqtt.cluster.forwarded");
+    Gauge.builder("mqtt.cluster.members", this, r -> r.members.size()).register(meterRegistry);
+    Gauge.builder("mqtt.cluster.dispatch-leader", this, r -> r.isDispatchLeader() ? 1 : 0).register(meterRegistry);
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public String nodeId() {
+    return nodeId;
+  }
+
+  /** Topic filter this node subscribes to (without sharing) for frames forwarded to it. */
+  public String routeTopicFilter() {
+    return routeTopicPrefix + nodeId + "/+";
+  }
+
+  /** The UAV code of a route topic addressed to this node, or {@code null} for any other topic. */
+  public String routedUavCode(String topic) {
+    String prefix = routeTopicPrefix + nodeId + "/";
+    return topic != null && topic.startsWith(prefix) ? topic.substring(prefix.length()) : null;
+  }
+
+  public boolean isLocal(String uavCode) {
+    return !enabled || nodeId.equals(ownerOf(uavCode));
+  }
+
+  /** Whether this node runs mission dispatch: always without clustering, else while it holds the lease. */
+  public boolean isDispatchLeader() {
+    return !enabled || System.currentTimeMillis() < leaseValidUntil;
+  }
+
+  /** Base URL of the node owning a UAV, or {@code null} when it is this node or did not advertise one. */
+  public String ownerUrl(String uavCode) {
+    if (isLocal(uavCode)) {
+      return null;
+    }
+    return urls.get(ownerOf(uavCode));
+  }
+
+  /** Base URLs of the other live nodes that advertised one. */
+  public List<String> peerUrls() {
+    List<String> result = new ArrayList<>();
+    for (String member : members) {
+      String url = urls.get(member);
+      if (url != null && !member.equals(nodeId)) {
+        result.add(url);
+      }
+    }
+    return result;
+  }
+
+  /** Republishes a frame to the node that owns its UAV; best effort, drops are counted by the publisher. */
+  public void forward(String uavCode, byte[] payload) {
+    if (publisher.publish(routeTopicPrefix + ownerOf(uavCode) + "/" + uavCode, uavCode, payload)) {
+      forwarded.increment();
+    }
+  }
+
+  String ownerOf(String uavCode) {
+    List<String> current = members;
+    if (current.isEmpty()) {
+      return nodeId;
+    }
+    String owner = null;
+    long best = Long.MIN_VALUE;
+    for (String member : current) {
+      long score = mix(member.hashCode() * 0x9E3779B97F4A7C15L + uavCode.hashCode());
+      if (owner == null || score > best) {
+        best = score;
+        owner = member;
+      }
+    }
+    return owner;
+  }
+
+  @Scheduled(fixedDelay = HEARTBEAT_MS)
+  public void heartbeat() {
+    if (enabled) {
+      jobMonitor.run("mqtt.cluster.heartbeat", HEARTBEAT_MS, this::refreshMembers);
+    }
+  }
+
+  private void refreshMembers() {
+    long now = System.currentTimeMillis();
+    try {
+      redisTemplate.opsForZSet().add(NODES_KEY, nodeId, now);
+      redisTemplate.opsForZSet().removeRangeByScore(NODES_KEY, 0, now - nodeTtlMs);
+      Set<String> live = redisTemplate.opsForZSet().range(NODES_KEY, 0, -1);
+      List<String> next = live == null ? new ArrayList<>() : new ArrayList<>(live);
+      if (!next.contains(nodeId)) {
+        next.add(nodeId);
+      }
+      next.sort(null);
+      if (!next.equals(members)) {
+        log.info("Telemetry ingest cluster members changed: {}", next);
+      }
+      members = List.copyOf(next);
+      refreshUrls(next);
+    } catch (Exception e) {
+      log.warn("Telemetry ingest cluster heartbeat failed, keeping members {}", members, e);
+    }
+    refreshLease(now);
+  }
+
+  private void refreshUrls(List<String> live) {
+    if (!advertisedUrl.isEmpty()) {
+      redisTemplate.opsForHash().put(URLS_KEY, nodeId, advertisedUrl);
+    }
+    Map<String, String> next = new HashMap<>();
+    redisTemplate
+        .opsForHash()
+        .entries(URLS_KEY)
+        .forEach(
+            (node, url) -> {
+              if (live.contains(node)) {
+                next.put((String) node, (String) url);
+              } else {
+                redisTemplate.opsForHash().delete(URLS_KEY, node);
+              }
+            });
+    urls = Map.copyOf(next);
+  }
+
+  /** {@code now} is taken before the Redis calls, so the local lease never outlives the key. */
+  private void refreshLease(long now) {
+    boolean wasLeader = isDispatchLeader();
+    try {
+      Long renewed = redisTemplate.execute(RENEW_LEASE, List.of(LEADER_KEY), nodeId, String.valueOf(nodeTtlMs));
+      boolean held =
+          (renewed != null && renewed == 1)
+              || Boolean.TRUE.equals(
+                  redisTemplate.opsForValue().setIfAbsent(LEADER_KEY, nodeId, Duration.ofMillis(nodeTtlMs)));
+      leaseValidUntil = held ? now + nodeTtlMs / 2 : 0;
+    } catch (Exception e) {
+      log.warn("Mission dispatch lease refresh failed; dispatch stops when the current lease runs out", e);
+    }
+    boolean leader = isDispatchLeader();
+    if (leader != wasLeader) {
+      log.info("Mission dispatch lease {} by node {}", leader ? "acquired" : "lost", nodeId);
+    }
+  }
+
+  @PreDestroy
+  public void leave() {
+    if (!enabled) {
+      return;
+    }
+    try {
+      leaseValidUntil = 0;
+      redisTemplate.execute(RELEASE_LEASE, List.of(LEADER_KEY), nodeId);
+      redisTemplate.opsForHash().delete(URLS_KEY, nodeId);
+      redisTemplate.opsForZSet().remove(NODES_KEY, nodeId);
+    } catch (Exception e) {
+      log.debug("Telemetry ingest cluster leave failed", e);
+    }
+  }
+
+  /** 64-bit finalizer from SplitMix64, so neighbouring hash codes spread evenly. */
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+}
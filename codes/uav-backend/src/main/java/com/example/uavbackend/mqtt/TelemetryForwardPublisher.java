@@ -0,0 +1,177 @@
+package com.example.uavbackend.mqtt;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.paho.client.mqttv3.IMqttActionListener;
+import org.eclipse.paho.client.mqttv3.IMqttAsyncClient;
+import org.eclipse.paho.client.mqttv3.IMqttToken;
+import org.eclipse.paho.client.mqttv3.MqttConnectOptions;
+import org.eclipse.paho.client.mqttv3.MqttException;
+import org.eclipse.paho.client.mqttv3.MqttMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.integration.mqtt.core.MqttPahoClientFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Republishes telemetry between cluster nodes (see {@link TelemetryClusterRouter}) over its own
+ * async Paho clients, so forwarded frames never share an inflight window, buffer or ordering chain
+ * with {@link MqttCommandPublisher}.
+ *
+ * <p>Forwarding is best effort, like telemetry itself: frames go out at {@code
+ * mqtt.cluster.forward.qos} (0 by default), a frame is dropped while its client is not connected
+ * or already has {@code max-pending} frames outstanding, and nothing is buffered across
+ * reconnects. A UAV is always served by the same client, which sends in submission order. Drops
+ * and failures are only counted; connection failures are logged once per retry.
+ */
+@Slf4j
+@Component
+public class TelemetryForwardPublisher {
+  private static final long CONNECT_RETRY_MS = 5000;
+
+  private final MqttConnectOptions connectOptions;
+  private final Slot[] slots;
+  private final String brokerUrl;
+  private final int qos;
+  private final int maxPending;
+  private final Counter dropped;
+  private final Counter failed;
+
+  private static final class Slot {
+    final IMqttAsyncClient client;
+    final AtomicInteger pending = new AtomicInteger();
+    final AtomicBoolean connecting = new AtomicBoolean();
+    volatile boolean everConnected;
+    volatile long retryAt;
+
+    Slot(IMqttAsyncClient client) {
+      this.client = client;
+    }
+  }
+
+  public TelemetryForwardPublisher(
+      MqttPahoClientFactory mqttClientFactory,
+      MqttConnectOptions mqttConnectOptions,
+      MeterRegistry meterRegistry,
+      @Value("${mqtt.broker-url}") String brokerUrl,
+      @Value("${mqtt.cluster.node-id:${mqtt.client-id}}") String nodeId,
+      @Value("${mqtt.cluster.forward.pool-size:2}") int poolSize,
+      @Value("${mqtt.cluster.forward.qos:0}") int qos,
+      @Value("${mqtt.cluster.forward.max-pending:10000}") int maxPending)
+      throws MqttException {
+    this.brokerUrl = brokerUrl;
+    this.qos = Math.max(0, Math.min(qos, 1));
+    this.maxPending = Math.max(maxPending, 1);
+    this.connectOptions = forwardOptions(mqttConnectOptions, this.maxPending);
+    this.slots = new Slot[Math.max(poolSize, 1)];
+    for (int i = 0; i < slots.length; i++) {
+      slots[i] = new Slot(mqttClientFactory.getAsyncClientInstance(brokerUrl, nodeId + "-fwd-" + i));
+    }
+    this.dropped = meterRegistry.counter("mqtt.cluster.forward.dropped");
+    this.failed = meterRegistry.counter("mqtt.cluster.forward.failed");
+  }
+
+  /**
+   * Hands a frame to the client serving {@code orderingKey} without blocking.
+   *
+   * @return whether the frame was handed over; {@code false} if it was dropped
+   */
+  public boolean publish(String topic, String orderingKey, byte[] payload) {
+    Slot slot = slots[Math.floorMod(orderingKey.hashCode(), slots.length)];
+    if (!slot.client.isConnected()) {
+      // once connected, Paho reconnects by itself; frames in between are dropped
+      if (!slot.everConnected) {
+        connect(slot);
+      }
+      dropped.increment();
+      return false;
+    }
+    if (slot.pending.incrementAndGet() > maxPending) {
+      slot.pending.decrementAndGet();
+      dropped.increment();
+      return false;
+    }
+    MqttMessage msg = new MqttMessage(payload);
+    msg.setQos(qos);
+    try {
+      slot.client.publish(topic, msg, null, new IMqttActionListener() {
+        @Override
+        public void onSuccess(IMqttToken token) {
+          slot.pending.decrementAndGet();
+        }
+
+        @Override
+        public void onFailure(IMqttToken token, Throwable exception) {
+          slot.pending.decrementAndGet();
+          failed.increment();
+        }
+      });
+      return true;
+    } catch (MqttException e) {
+      slot.pending.decrementAndGet();
+      failed.increment();
+      return false;
+    }
+  }
+
+  private void connect(Slot slot) {
+    if (System.currentTimeMillis() < slot.retryAt || !slot.connecting.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      slot.client.connect(connectOptions, null, new IMqttActionListener() {
+        @Override
+        public void onSuccess(IMqttToken token) {
+          slot.everConnected = true;
+          slot.connecting.set(false);
+          log.info("MQTT forward client {} connected to {}", slot.client.getClientId(), brokerUrl);
+        }
+
+        @Override
+        public void onFailure(IMqttToken token, Throwable exception) {
+          slot.retryAt = System.currentTimeMillis() + CONNECT_RETRY_MS;
+          slot.connecting.set(false);
+          log.warn("MQTT forward client {} failed to connect to {}: {}; retrying in {} ms",
+              slot.client.getClientId(), brokerUrl, exception.toString(), CONNECT_RETRY_MS);
+        }
+      });
+    } catch (MqttException e) {
+      slot.retryAt = System.currentTimeMillis() + CONNECT_RETRY_MS;
+      slot.connecting.set(false);
+      log.warn("MQTT forward client {} failed to connect to {}: {}", slot.client.getClientId(), brokerUrl, e.toString());
+    }
+  }
+
+  private static MqttConnectOptions forwardOptions(MqttConnectOptions base, int maxPending) {
+    // copy so the telemetry subscriber keeps its own settings
+    MqttConnectOptions options = new MqttConnectOptions();
+    options.setServerURIs(base.getServerURIs());
+    if (base.getUserName() != null) {
+      options.setUserName(base.getUserName());
+      options.setPassword(base.getPassword());
+    }
+    options.setAutomaticReconnect(true);
+    options.setCleanSession(true);
+    options.setKeepAliveInterval(base.getKeepAliveInterval());
+    options.setConnectionTimeout(base.getConnectionTimeout());
+    options.setMaxInflight(maxPending);
+    return options;
+  }
+
+  @PreDestroy
+  public void close() {
+    for (Slot slot : slots) {
+      try {
+        if (slot.client.isConnected()) {
+          slot.client.disconnect().waitForCompletion(2000);
+        }
+        slot.client.close();
+      } catch (MqttException e) {
+        log.debug("MQTT forward client {} close failed", slot.client.getClientId(), e);
+      }
+    }
+  }
+}
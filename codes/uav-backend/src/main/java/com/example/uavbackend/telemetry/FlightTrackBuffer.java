@@ -0,0 +1,93 @@
+package com.example.uavbackend.telemetry;
+
+/**
+ * Fixed-capacity ring of one UAV's recent positions, stored column-wise in primitive arrays so a
+ * point costs {@link #BYTES_PER_POINT} bytes and no object.
+ *
+ * <p>Coordinates are kept as micro-degrees (about 0.1 m), altitude/speed/battery as floats. The
+ * ingest thread appends, HTTP threads read; both hold the buffer's monitor only for array copies.
+ */
+public final class FlightTrackBuffer {
+  /** ts(8) + lat(4) + lng(4) + alt(4) + speed(4) + battery(4). */
+  public static final int BYTES_PER_POINT = 28;
+
+  /** Column arrays for the points at or after a given time, oldest first. */
+  public record Slice(
+      int count, long[] ts, double[] lat, double[] lng, float[] alt, float[] speed, float[] battery) {}
+
+  private final long[] ts;
+  private final int[] latE6;
+  private final int[] lngE6;
+  private final float[] alt;
+  private final float[] speed;
+  private final float[] battery;
+  private int next;
+  private int size;
+
+  FlightTrackBuffer(int capacity) {
+    ts = new long[capacity];
+    latE6 = new int[capacity];
+    lngE6 = new int[capacity];
+    alt = new float[capacity];
+    speed = new float[capacity];
+    battery = new float[capacity];
+  }
+
+  public int capacity() {
+    return ts.length;
+  }
+
+  synchronized long lastTimestamp() {
+    return size == 0 ? 0 : ts[(next - 1 + ts.length) % ts.length];
+  }
+
+  synchronized void append(long timestamp, double lat, double lng, double altitude, double groundSpeed, double batteryPercent) {
+    ts[next] = timestamp;
+    latE6[next] = (int) Math.round(lat * 1e6);
+    lngE6[next] = (int) Math.round(lng * 1e6);
+    alt[next] = (float) altitude;
+    speed[next] = (float) groundSpeed;
+    battery[next] = (float) batteryPercent;
+    next = (next + 1) % ts.length;
+    if (size < ts.length) {
+      size++;
+    }
+  }
+
+  public synchronized Slice since(long sinceMs) {
+    int capacity = ts.length;
+    int oldest = (next - size + capacity) % capacity;
+    // timestamps are appended in order, so binary-search the first point >= sinceMs
+    int lo = 0;
+    int hi = size;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (ts[(oldest + mid) % capacity] < sinceMs) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    int count = size - lo;
+    long[] outTs = new long[count];
+    double[] outLat = new double[count];
+    double[] outLng = new double[count];
+    float[] outAlt = new float[count];
+    float[] outSpeed = new float[count];
+    float[] outBattery = new float[count];
+    for (int i = 0; i < count; i++) {
+      int idx = (oldest + lo + i) % capacity;
+      outTs[i] = ts[idx];
+      outLat[i] = latE6[idx] / 1e6;
+      outLng[i] = lngE6[idx] / 1e6;
+      outAlt[i] = alt[idx];
+      outSpeed[i] = speed[idx];
+      outBattery[i] = battery[idx];
+    }
+    return new Slice(count, outTs, outLat, outLng, outAlt, outSpeed, outBattery);
+  }
+
+  static Slice empty() {
+    return new Slice(0, new long[0], new double[0], new double[0], new float[0], new float[0], new float[0]);
+  }
+}
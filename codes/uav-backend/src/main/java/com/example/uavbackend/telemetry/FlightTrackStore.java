@@ -0,0 +1,111 @@
+package com.example.uavbackend.telemetry;
+
+import com.example.uavbackend.config.ScheduledJobMonitor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Recent flight track of every UAV, one {@link FlightTrackBuffer} each, filled from ingest.
+ *
+ * <p>A point is recorded at most every {@code telemetry.track.min-interval-ms}, and buffers hold
+ * {@code capacity} points, so with the defaults (1 s, 1800 points) a UAV keeps its last 30 minutes
+ * in about 49 KiB. At most {@code max-uavs} buffers are created, which caps the whole store at
+ * {@code max-uavs × capacity × 28} bytes; the figure is logged at startup and exported as {@code
+ * telemetry.track.budget-bytes}, with actual use in {@code telemetry.track.bytes}.
+ *
+ * <p>A track with no new point for {@code idle-evict-ms} is dropped by a periodic sweep, which frees
+ * its place for another UAV; a UAV turned away while the store was full gets a track with its first
+ * frame after that.
+ */
+@Slf4j
+@Component
+public class FlightTrackStore implements TelemetryFrameListener {
+  private final Map<String, FlightTrackBuffer> tracks = new ConcurrentHashMap<>();
+  private final int capacity;
+  private final long minIntervalMs;
+  private final int maxUavs;
+  private final long idleEvictMs;
+  private final long sweepIntervalMs;
+  private final ScheduledJobMonitor jobMonitor;
+  private final Counter rejected;
+  private final Counter evicted;
+
+  public FlightTrackStore(
+      MeterRegistry meterRegistry,
+      ScheduledJobMonitor jobMonitor,
+      @Value("${telemetry.track.capacity:1800}") int capacity,
+      @Value("${telemetry.track.min-interval-ms:1000}") long minIntervalMs,
+      @Value("${telemetry.track.max-uavs:2000}") int maxUavs,
+      @Value("${telemetry.track.idle-evict-ms:1800000}") long idleEvictMs,
+      @Value("${telemetry.track.sweep-interval-ms:60000}") long sweepIntervalMs) {
+    this.capacity = Math.max(capacity, 1);
+    this.minIntervalMs = minIntervalMs;
+    this.maxUavs = maxUavs;
+    this.idleEvictMs = idleEvictMs;
+    this.sweepIntervalMs = sweepIntervalMs;
+    this.jobMonitor = jobMonitor;
+    this.rejected = meterRegistry.counter("telemetry.track.rejected-uavs");
+    this.evicted = meterRegistry.counter("telemetry.track.evicted");
+    Gauge.builder("telemetry.track.uavs", tracks, Map::size).register(meterRegistry);
+    Gauge.builder("telemetry.track.bytes", this, FlightTrackStore::usedBytes).register(meterRegistry);
+    Gauge.builder("telemetry.track.budget-bytes", this, FlightTrackStore::budgetBytes).register(meterRegistry);
+    log.info("Flight track store: {} points per UAV, up to {} UAVs, budget {} MiB",
+        this.capacity, maxUavs, budgetBytes() / (1024 * 1024));
+  }
+
+  @Override
+  public void onFrame(TelemetryFrame frame) {
+    if (!frame.hasPosition()) {
+      return;
+    }
+    FlightTrackBuffer track = tracks.get(frame.uavCode());
+    if (track == null) {
+      if (tracks.size() >= maxUavs) {
+        rejected.increment();
+        return;
+      }
+      track = tracks.computeIfAbsent(frame.uavCode(), k -> new FlightTrackBuffer(capacity));
+    }
+    if (frame.receivedAt() - track.lastTimestamp() < minIntervalMs) {
+      return;
+    }
+    track.append(frame.receivedAt(), frame.lat(), frame.lng(), frame.alt(), frame.speed(), frame.battery());
+  }
+
+  /** Points of one UAV received at or after {@code sinceMs}; empty when the UAV is unknown. */
+  public FlightTrackBuffer.Slice track(String uavCode, long sinceMs) {
+    FlightTrackBuffer track = tracks.get(uavCode);
+    return track == null ? FlightTrackBuffer.empty() : track.since(sinceMs);
+  }
+
+  @Scheduled(fixedDelayString = "${telemetry.track.sweep-interval-ms:60000}")
+  public void sweep() {
+    jobMonitor.run("telemetry.track.sweep", sweepIntervalMs, this::evictIdle);
+  }
+
+  private void evictIdle() {
+    long cutoff = System.currentTimeMillis() - idleEvictMs;
+    // a point appended between the check and the removal is lost, which is harmless for an idle UAV
+    tracks.forEach(
+        (uavCode, track) -> {
+          if (track.lastTimestamp() < cutoff && tracks.remove(uavCode, track)) {
+            evicted.increment();
+          }
+        });
+  }
+
+  public long usedBytes() {
+    return (long) tracks.size() * capacity * FlightTrackBuffer.BYTES_PER_POINT;
+  }
+
+  public long budgetBytes() {
+    return (long) maxUavs * capacity * FlightTrackBuffer.BYTES_PER_POINT;
+  }
+}
@@ -0,0 +1,397 @@
+package com.example.uavbackend.telemetry;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * One memory-mapped file of the {@link TelemetrySegmentLog}. Records are appended back to back:
+ *
+ * <pre>
+ * int length (bytes after this field) | int crc32 (of the rest) | long receivedAt |
+ * byte uavCode length | uavCode (UTF-8) | payload
+ * </pre>
+ *
+ * <p>The file is split into fixed-size blocks, and a sparse in-memory index keeps for each block the
+ * offset of its first record and the min/max receive time, plus a per-UAV bitmap of the blocks that
+ * hold the UAV's records. A query therefore scans only blocks that overlap the time range and
+ * contain the UAV. The index is written next to the segment ({@code .idx}) when it is sealed and
+ * rebuilt by scanning (stopping at the first torn or corrupt record) when that file is missing.
+ *
+ * <p>Only the appender thread writes. It publishes progress through {@link #publish()}, and readers
+ * never look past the last published offset; the unsealed tail block is always scanned because its
+ * bitmap bits may not be visible yet.
+ *
+ * <p>The mapping is reference counted: the log holds one reference and each read in progress one
+ * more ({@link #retain()}/{@link #release()}). {@link #retire()} drops the log's reference, and the
+ * last release unmaps the file and deletes it, so retention never deletes a file that is still
+ * mapped (which fails on Windows) and never unmaps under a reader.
+ */
+@Slf4j
+final class LogSegment {
+  static final String SUFFIX = ".seg";
+  static final int HEADER_BYTES = 17;
+  private static final String INDEX_SUFFIX = ".idx";
+  private static final int INDEX_MAGIC = 0x54534c31;
+  /** {@code Unsafe.invokeCleaner(ByteBuffer)}, or {@code null} when unavailable (then the GC unmaps). */
+  private static final MethodHandle INVOKE_CLEANER = lookupCleaner();
+
+  private final Path path;
+  private final MappedByteBuffer buffer;
+  private final int capacity;
+  private final int blockBytes;
+  private final int[] blockFirst;
+  private final long[] blockMinTs;
+  private final long[] blockMaxTs;
+  private final int bitmapWords;
+  private final Map<String, long[]> uavBlocks = new ConcurrentHashMap<>();
+  // appender thread only
+  private int position;
+  private volatile int committed;
+  private volatile long minTs = Long.MAX_VALUE;
+  private volatile long maxTs = Long.MIN_VALUE;
+  private volatile boolean sealed;
+  private final AtomicInteger refs = new AtomicInteger(1);
+
+  private LogSegment(Path path, MappedByteBuffer buffer, int capacity, int blockBytes) {
+    this.path = path;
+    this.buffer = buffer;
+    this.capacity = capacity;
+    this.blockBytes = blockBytes;
+    int blocks = (capacity + blockBytes - 1) / blockBytes;
+    this.blockFirst = new int[blocks];
+    Arrays.fill(blockFirst, -1);
+    this.blockMinTs = new long[blocks];
+    this.blockMaxTs = new long[blocks];
+    this.bitmapWords = (blocks + 63) >>> 6;
+  }
+
+  /** Creates and maps a new, empty segment of {@code capacity} bytes. */
+  static LogSegment create(Path file, int capacity, int blockBytes) throws IOException {
+    try (FileChannel channel =
+        FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      return new LogSegment(file, channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity), capacity, blockBytes);
+    }
+  }
+
+  /** Maps an existing segment read-only and loads (or rebuilds) its index; the result is sealed. */
+  static LogSegment open(Path file, int blockBytes) throws IOException {
+    LogSegment segment;
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      int size = (int) Math.min(channel.size(), Integer.MAX_VALUE);
+      segment = new LogSegment(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, size), size, blockBytes);
+    }
+    if (!segment.loadIndex()) {
+      segment.recover();
+      segment.writeIndex();
+    }
+    segment.sealed = true;
+    return segment;
+  }
+
+  Path path() {
+    return path;
+  }
+
+  /** Bytes on disk once sealed; the active segment is pre-sized to its full capacity. */
+  long sizeBytes() {
+    return capacity;
+  }
+
+  int committedBytes() {
+    return committed;
+  }
+
+  long minTs() {
+    return minTs;
+  }
+
+  long maxTs() {
+    return maxTs;
+  }
+
+  /** Appends one record, or returns {@code false} when it does not fit in the remaining space. */
+  boolean append(String uavCode, byte[] code, long receivedAt, byte[] payload, CRC32 crc) {
+    int length = HEADER_BYTES - 4 + code.length + payload.length;
+    int at = position;
+    if (sealed || (long) at + 4 + length > capacity) {
+      return false;
+    }
+    buffer.putLong(at + 8, receivedAt);
+    buffer.put(at + 16, (byte) code.length);
+    buffer.put(at + HEADER_BYTES, code);
+    buffer.put(at + HEADER_BYTES + code.length, payload);
+    crc.reset();
+    crc.update(buffer.slice(at + 8, length - 4));
+    buffer.putInt(at + 4, (int) crc.getValue());
+    buffer.putInt(at, length);
+    index(uavCode, at, receivedAt);
+    position = at + 4 + length;
+    return true;
+  }
+
+  /** Makes everything appended so far visible to readers. */
+  void publish() {
+    committed = position;
+  }
+
+  /** Flushes the mapping and writes the index; no more appends are accepted. */
+  void seal() throws IOException {
+    publish();
+    sealed = true;
+    buffer.force();
+    writeIndex();
+  }
+
+  /** Pins the mapping for a read; {@code false} once the segment has been retired and released. */
+  boolean retain() {
+    for (int n = refs.get(); n > 0; n = refs.get()) {
+      if (refs.compareAndSet(n, n + 1)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Ends a read started by {@link #retain()}; the last release after {@link #retire()} deletes the files. */
+  void release() {
+    if (refs.decrementAndGet() == 0) {
+      unmapAndDelete();
+    }
+  }
+
+  /** Drops the log's reference: the segment is unmapped and deleted once no read is using it. */
+  void retire() {
+    release();
+  }
+
+  private void unmapAndDelete() {
+    if (INVOKE_CLEANER != null) {
+      try {
+        INVOKE_CLEANER.invokeExact((ByteBuffer) buffer);
+      } catch (Throwable e) {
+        log.debug("Unmapping telemetry log segment {} failed", path, e);
+      }
+    }
+    try {
+      Files.deleteIfExists(indexPath());
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      log.warn("Deleting telemetry log segment {} failed", path, e);
+    }
+  }
+
+  private static MethodHandle lookupCleaner() {
+    try {
+      Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      Field field = unsafeClass.getDeclaredField("theUnsafe");
+      field.setAccessible(true);
+      return MethodHandles.lookup()
+          .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+          .bindTo(field.get(null));
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Visits records of {@code uavCode} received in {@code [fromMs, toMs)} in file order. Payloads are
+   * read-only slices of the mapping, valid only during {@code visit}; the caller must hold a {@link
+   * #retain()}. Returns {@code false} once the visitor asked to stop.
+   */
+  boolean read(String uavCode, byte[] code, long fromMs, long toMs, TelemetrySegmentLog.RecordVisitor visitor) {
+    int end = committed;
+    if (end == 0 || maxTs < fromMs || minTs >= toMs) {
+      return true;
+    }
+    long[] bits = uavBlocks.get(uavCode);
+    boolean tailOpen = !sealed;
+    int lastBlock = (end - 1) / blockBytes;
+    for (int block = 0; block <= lastBlock; block++) {
+      boolean tail = tailOpen && block == lastBlock;
+      if (!tail) {
+        if (bits == null || (bits[block >>> 6] & (1L << block)) == 0) {
+          continue;
+        }
+        if (blockMaxTs[block] < fromMs || blockMinTs[block] >= toMs) {
+          continue;
+        }
+      }
+      int at = blockFirst[block];
+      if (at < 0) {
+        continue;
+      }
+      int limit = Math.min(end, (block + 1) * blockBytes);
+      while (at < limit) {
+        int length = buffer.getInt(at);
+        if (length <= 0) {
+          break;
+        }
+        long ts = buffer.getLong(at + 8);
+        int codeLength = buffer.get(at + 16) & 0xff;
+        if (ts >= fromMs && ts < toMs && codeMatches(at + HEADER_BYTES, codeLength, code)) {
+          int payloadAt = at + HEADER_BYTES + codeLength;
+          ByteBuffer payload = buffer.slice(payloadAt, at + 4 + length - payloadAt).asReadOnlyBuffer();
+          if (!visitor.visit(ts, payload)) {
+            return false;
+          }
+        }
+        at += 4 + length;
+      }
+    }
+    return true;
+  }
+
+  private boolean codeMatches(int at, int length, byte[] code) {
+    if (length != code.length) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (buffer.get(at + i) != code[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void index(String uavCode, int at, long receivedAt) {
+    int block = at / blockBytes;
+    if (blockFirst[block] < 0) {
+      blockFirst[block] = at;
+      blockMinTs[block] = receivedAt;
+      blockMaxTs[block] = receivedAt;
+    } else {
+      blockMinTs[block] = Math.min(blockMinTs[block], receivedAt);
+      blockMaxTs[block] = Math.max(blockMaxTs[block], receivedAt);
+    }
+    long[] bits = uavBlocks.get(uavCode);
+    if (bits == null) {
+      bits = new long[bitmapWords];
+      uavBlocks.put(uavCode, bits);
+    }
+    bits[block >>> 6] |= 1L << block;
+    if (receivedAt < minTs) {
+      minTs = receivedAt;
+    }
+    if (receivedAt > maxTs) {
+      maxTs = receivedAt;
+    }
+  }
+
+  /** Re-indexes a segment without an index file, up to the first torn or corrupt record. */
+  private void recover() {
+    CRC32 crc = new CRC32();
+    int at = 0;
+    while (at + HEADER_BYTES <= capacity) {
+      int length = buffer.getInt(at);
+      if (length < HEADER_BYTES - 4 || (long) at + 4 + length > capacity) {
+        break;
+      }
+      crc.reset();
+      crc.update(buffer.slice(at + 8, length - 4));
+      if ((int) crc.getValue() != buffer.getInt(at + 4)) {
+        break;
+      }
+      int codeLength = buffer.get(at + 16) & 0xff;
+      byte[] code = new byte[codeLength];
+      buffer.get(at + HEADER_BYTES, code);
+      index(new String(code, java.nio.charset.StandardCharsets.UTF_8), at, buffer.getLong(at + 8));
+      at += 4 + length;
+    }
+    position = at;
+    committed = at;
+  }
+
+  private Path indexPath() {
+    String name = path.getFileName().toString();
+    return path.resolveSibling(name.substring(0, name.length() - SUFFIX.length()) + INDEX_SUFFIX);
+  }
+
+  private void writeIndex() throws IOException {
+    int end = committed;
+    int blocks = end == 0 ? 0 : (end - 1) / blockBytes + 1;
+    Path tmp = indexPath().resolveSibling(indexPath().getFileName() + ".tmp");
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+      out.writeInt(INDEX_MAGIC);
+      out.writeInt(blockBytes);
+      out.writeInt(end);
+      out.writeLong(minTs);
+      out.writeLong(maxTs);
+      out.writeInt(blocks);
+      for (int i = 0; i < blocks; i++) {
+        out.writeInt(blockFirst[i]);
+        out.writeLong(blockMinTs[i]);
+        out.writeLong(blockMaxTs[i]);
+      }
+      int words = (blocks + 63) >>> 6;
+      out.writeInt(uavBlocks.size());
+      for (Map.Entry<String, long[]> entry : uavBlocks.entrySet()) {
+        out.writeUTF(entry.getKey());
+        for (int i = 0; i < words; i++) {
+          out.writeLong(entry.getValue()[i]);
+        }
+      }
+    }
+    Files.move(tmp, indexPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  private boolean loadIndex() {
+    Path file = indexPath();
+    if (!Files.exists(file)) {
+      return false;
+    }
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != INDEX_MAGIC || in.readInt() != blockBytes) {
+        return false;
+      }
+      int end = in.readInt();
+      long min = in.readLong();
+      long max = in.readLong();
+      int blocks = in.readInt();
+      if (end > capacity || blocks > blockFirst.length) {
+        return false;
+      }
+      for (int i = 0; i < blocks; i++) {
+        blockFirst[i] = in.readInt();
+        blockMinTs[i] = in.readLong();
+        blockMaxTs[i] = in.readLong();
+      }
+      int words = (blocks + 63) >>> 6;
+      int uavs = in.readInt();
+      for (int u = 0; u < uavs; u++) {
+        String uavCode = in.readUTF();
+        long[] bits = new long[bitmapWords];
+        for (int i = 0; i < words; i++) {
+          bits[i] = in.readLong();
+        }
+        uavBlocks.put(uavCode, bits);
+      }
+      minTs = min;
+      maxTs = max;
+      position = end;
+      committed = end;
+      return true;
+    } catch (IOException e) {
+      return false;
+    }
+  }
+}
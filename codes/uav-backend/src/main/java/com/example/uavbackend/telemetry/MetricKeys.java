@@ -0,0 +1,101 @@
+package com.example.uavbackend.telemetry;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Process-wide interning of telemetry metric codes (the keys of the {@code data} object) to dense
+ * integer slots, so frames can carry metrics as primitive arrays.
+ *
+ * <p>Slots are never released, so a device sending arbitrary keys could fill the registry. Codes
+ * must be 1 to {@value #MAX_CODE_LENGTH} letters, digits, {@code _}, {@code -} or {@code .} (the
+ * rollup tables' {@code metric} column is VARCHAR(64)); others are refused. Once {@value #MAX_SLOTS}
+ * codes are registered, new ones are refused too, which is logged once. Both are counted, see
+ * {@link #rejectedInvalid()} and {@link #rejectedFull()}.
+ */
+@Slf4j
+public final class MetricKeys {
+  /** Upper bound on distinct metric codes; codes beyond it are ignored by the decoder. */
+  public static final int MAX_SLOTS = 4096;
+  public static final int MAX_CODE_LENGTH = 64;
+
+  private static final ConcurrentHashMap<String, Integer> slots = new ConcurrentHashMap<>();
+  private static volatile String[] names = new String[64];
+  private static int size;
+  private static final AtomicLong rejectedInvalid = new AtomicLong();
+  private static final AtomicLong rejectedFull = new AtomicLong();
+
+  private MetricKeys() {}
+
+  /** Slot of an already registered code, or {@code -1}. */
+  public static int slotOf(String code) {
+    Integer slot = code == null ? null : slots.get(code);
+    return slot == null ? -1 : slot;
+  }
+
+  /** Slot of a code, registering it on first use; {@code -1} for an invalid code or once the registry is full. */
+  public static int register(String code) {
+    Integer slot = slots.get(code);
+    if (slot != null) {
+      return slot;
+    }
+    if (!isValid(code)) {
+      rejectedInvalid.incrementAndGet();
+      return -1;
+    }
+    synchronized (MetricKeys.class) {
+      slot = slots.get(code);
+      if (slot != null) {
+        return slot;
+      }
+      if (size >= MAX_SLOTS) {
+        if (rejectedFull.getAndIncrement() == 0) {
+          log.warn("Metric key registry is full ({} codes); new metric codes such as '{}' are ignored", MAX_SLOTS, code);
+        }
+        return -1;
+      }
+      String[] current = names;
+      if (size == current.length) {
+        current = Arrays.copyOf(current, Math.min(current.length * 2, MAX_SLOTS));
+      }
+      current[size] = code;
+      // publish the name before the slot becomes visible through the map
+      names = current;
+      slots.put(code, size);
+      return size++;
+    }
+  }
+
+  public static String name(int slot) {
+    return names[slot];
+  }
+
+  public static int size() {
+    return slots.size();
+  }
+
+  /** Codes refused for their length or characters. */
+  public static long rejectedInvalid() {
+    return rejectedInvalid.get();
+  }
+
+  /** New codes refused because the registry was full. */
+  public static long rejectedFull() {
+    return rejectedFull.get();
+  }
+
+  private static boolean isValid(String code) {
+    if (code == null || code.isEmpty() || code.length() > MAX_CODE_LENGTH) {
+      return false;
+    }
+    for (int i = 0; i < code.length(); i++) {
+      char c = code.charAt(i);
+      if (!Character.isLetterOrDigit(c) && c != '_' && c != '-' && c != '.') {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,25 @@
+package com.example.uavbackend.telemetry;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exports the process-wide {@link MetricKeys} registry: {@code telemetry.metric-keys.size} and
+ * {@code telemetry.metric-keys.rejected} tagged {@code reason=invalid|full}.
+ */
+@Component
+public class MetricKeysMetrics implements MeterBinder {
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder("telemetry.metric-keys.size", MetricKeys::size).register(registry);
+    FunctionCounter.builder("telemetry.metric-keys.rejected", MetricKeys.class, k -> MetricKeys.rejectedInvalid())
+        .tag("reason", "invalid")
+        .register(registry);
+    FunctionCounter.builder("telemetry.metric-keys.rejected", MetricKeys.class, k -> MetricKeys.rejectedFull())
+        .tag("reason", "full")
+        .register(registry);
+  }
+}
@@ -0,0 +1,43 @@
+package com.example.uavbackend.telemetry;
+
+/** Tumbling window sizes kept by the telemetry rollups, finest first, and their tables. */
+public enum RollupResolution {
+  SECOND(1_000, "uav_telemetry_rollup_1s", "1s"),
+  TEN_SECONDS(10_000, "uav_telemetry_rollup_10s", "10s"),
+  MINUTE(60_000, "uav_telemetry_rollup_1m", "1m");
+
+  private static final RollupResolution[] VALUES = values();
+
+  private final long millis;
+  private final String table;
+  private final String label;
+
+  RollupResolution(long millis, String table, String label) {
+    this.millis = millis;
+    this.table = table;
+    this.label = label;
+  }
+
+  public long millis() {
+    return millis;
+  }
+
+  public String table() {
+    return table;
+  }
+
+  public String label() {
+    return label;
+  }
+
+  /** Coarsest resolution not coarser than {@code stepMs}, i.e. the fewest rows that still fill each step. */
+  public static RollupResolution forStep(long stepMs) {
+    RollupResolution chosen = SECOND;
+    for (RollupResolution resolution : VALUES) {
+      if (resolution.millis <= stepMs) {
+        chosen = resolution;
+      }
+    }
+    return chosen;
+  }
+}
@@ -0,0 +1,153 @@
+package com.example.uavbackend.telemetry;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Open rollup windows of one UAV: for each {@link RollupResolution} the window currently being
+ * filled, with count/min/max/sum/last per metric in primitive arrays indexed by the order in which
+ * the UAV's metrics first appeared. Adding a frame touches only those arrays; a closed window is
+ * emitted as one {@link RollupRow} per metric.
+ *
+ * <p>Metrics are the decoded {@code alt}, {@code speed} and {@code battery} fields plus every entry
+ * of the {@code data} object. The ingest thread adds frames and the writer thread closes windows of
+ * UAVs that went quiet; both hold the monitor, which is practically never contended. Once all of a
+ * quiet UAV's windows are closed the instance is retired and refuses further frames, so the writer
+ * can drop it and the next frame starts a new one.
+ */
+final class RollupWindows {
+  /** Decoded fields rolled up next to the {@code data} metrics; data slot {@code s} is key {@code s + 3}. */
+  private static final String[] FIELDS = {"alt", "speed", "battery"};
+
+  private static final RollupResolution[] RESOLUTIONS = RollupResolution.values();
+  private static final long EMPTY = Long.MIN_VALUE;
+
+  /** One closed window of one metric. */
+  record RollupRow(
+      RollupResolution resolution,
+      String uavCode,
+      String metric,
+      long windowStart,
+      int count,
+      double min,
+      double max,
+      double avg,
+      double last) {}
+
+  private final String uavCode;
+  private final long[] starts = new long[RESOLUTIONS.length];
+  private int[] keys = new int[8];
+  private int keyCount;
+  private final int[][] counts = new int[RESOLUTIONS.length][8];
+  private final double[][] mins = new double[RESOLUTIONS.length][8];
+  private final double[][] maxs = new double[RESOLUTIONS.length][8];
+  private final double[][] sums = new double[RESOLUTIONS.length][8];
+  private final double[][] lasts = new double[RESOLUTIONS.length][8];
+  private boolean retired;
+
+  RollupWindows(String uavCode) {
+    this.uavCode = uavCode;
+    Arrays.fill(starts, EMPTY);
+  }
+
+  /** Folds a frame in; {@code false} if this instance was retired and the frame was not taken. */
+  synchronized boolean add(TelemetryFrame frame, Consumer<RollupRow> closed) {
+    if (retired) {
+      return false;
+    }
+    long ts = frame.receivedAt();
+    for (int r = 0; r < RESOLUTIONS.length; r++) {
+      long start = ts - Math.floorMod(ts, RESOLUTIONS[r].millis());
+      // a frame stamped before the open window (clock step back) is folded into it
+      if (start > starts[r]) {
+        close(r, closed);
+        starts[r] = start;
+      }
+    }
+    record(0, frame.alt());
+    record(1, frame.speed());
+    record(2, frame.battery());
+    for (int i = 0; i < frame.metricCount(); i++) {
+      record(frame.metricSlot(i) + FIELDS.length, frame.metricValue(i));
+    }
+    return true;
+  }
+
+  /**
+   * Closes every window that ended at least {@code graceMs} before {@code now}. Returns {@code true}
+   * and retires this instance when no window is left open.
+   */
+  synchronized boolean closeExpired(long now, long graceMs, Consumer<RollupRow> closed) {
+    boolean empty = true;
+    for (int r = 0; r < RESOLUTIONS.length; r++) {
+      if (starts[r] != EMPTY && now - graceMs >= starts[r] + RESOLUTIONS[r].millis()) {
+        close(r, closed);
+        starts[r] = EMPTY;
+      }
+      empty &= starts[r] == EMPTY;
+    }
+    retired = empty;
+    return empty;
+  }
+
+  private void record(int key, double value) {
+    if (Double.isNaN(value)) {
+      return;
+    }
+    int index = indexOf(key);
+    for (int r = 0; r < RESOLUTIONS.length; r++) {
+      if (counts[r][index]++ == 0) {
+        mins[r][index] = value;
+        maxs[r][index] = value;
+        sums[r][index] = value;
+      } else {
+        mins[r][index] = Math.min(mins[r][index], value);
+        maxs[r][index] = Math.max(maxs[r][index], value);
+        sums[r][index] += value;
+      }
+      lasts[r][index] = value;
+    }
+  }
+
+  private int indexOf(int key) {
+    for (int i = 0; i < keyCount; i++) {
+      if (keys[i] == key) {
+        return i;
+      }
+    }
+    if (keyCount == keys.length) {
+      int capacity = keys.length * 2;
+      keys = Arrays.copyOf(keys, capacity);
+      for (int r = 0; r < RESOLUTIONS.length; r++) {
+        counts[r] = Arrays.copyOf(counts[r], capacity);
+        mins[r] = Arrays.copyOf(mins[r], capacity);
+        maxs[r] = Arrays.copyOf(maxs[r], capacity);
+        sums[r] = Arrays.copyOf(sums[r], capacity);
+        lasts[r] = Arrays.copyOf(lasts[r], capacity);
+      }
+    }
+    keys[keyCount] = key;
+    return keyCount++;
+  }
+
+  private void close(int r, Consumer<RollupRow> closed) {
+    if (starts[r] == EMPTY) {
+      return;
+    }
+    int[] count = counts[r];
+    for (int i = 0; i < keyCount; i++) {
+      if (count[i] == 0) {
+        continue;
+      }
+      closed.accept(
+          new RollupRow(
+              RESOLUTIONS[r], uavCode, metricName(keys[i]), starts[r], count[i], mins[r][i], maxs[r][i],
+              sums[r][i] / count[i], lasts[r][i]));
+      count[i] = 0;
+    }
+  }
+
+  private static String metricName(int key) {
+    return key < FIELDS.length ? FIELDS[key] : MetricKeys.name(key - FIELDS.length);
+  }
+}
@@ -0,0 +1,160 @@
+package com.example.uavbackend.telemetry;
+
+import java.util.Arrays;
+
+/**
+ * Sliding window over one UAV's {@code seq} numbers: a ring bitmap of the last {@code size}
+ * sequence numbers plus the {@code msgId} hash seen in each slot, so a QoS 1 redelivery is
+ * recognised with one array lookup and nothing is allocated per message.
+ *
+ * <p>{@code seq} is treated as an unsigned 32-bit counter and compared with serial-number
+ * arithmetic, so wrapping from {@code 2^32-1} to {@code 0} is an ordinary step. A frame ahead of the
+ * highest number marks the skipped numbers as missing (counted as lost until they turn up); a frame
+ * behind it either fills a missing slot (reordered) or repeats a seen one (duplicate). The window
+ * starts over when the counter evidently restarted, i.e. after a reconnect: the UAV was silent for
+ * longer than the reset interval, the number is older than the window or jumps ahead by more than
+ * {@code maxGap}, a seen slot comes back with a different {@code msgId}, or the number falls back
+ * by at least {@code restartJump} to below {@code restartJump}. The last rule catches a quick
+ * reconnect that restarts a short-lived counter near 0 without {@code msgId}; a redelivery that far
+ * back is not expected, since QoS 1 only resends the unacknowledged in-flight tail.
+ *
+ * <p>Only the ingest thread calls {@link #accept}; readers take the monitor for {@link #stats()}.
+ */
+public final class SequenceWindow {
+  static final long SEQ_MASK = 0xFFFFFFFFL;
+
+  /** Counters since the window was created; rates are relative to accepted frames. */
+  public record Stats(
+      long lastSeq,
+      long received,
+      long duplicates,
+      long lost,
+      long reordered,
+      long resets,
+      double lossRate,
+      double reorderRate) {}
+
+  private final long[] seen;
+  private final int[] msgIdHashes;
+  private final int mask;
+  private final long resetAfterMs;
+  private final long maxGap;
+  private final long restartJump;
+  private boolean started;
+  private long highest;
+  // first number of the current run; slots before it were never counted as missing
+  private long floor;
+  private long lastSeenAt;
+  private long received;
+  private long duplicates;
+  private long lost;
+  private long reordered;
+  private long resets;
+
+  /** @param size window length in frames, a power of two and at least 64 */
+  SequenceWindow(int size, long resetAfterMs, long maxGap, long restartJump) {
+    this.seen = new long[size >>> 6];
+    this.msgIdHashes = new int[size];
+    this.mask = size - 1;
+    this.resetAfterMs = resetAfterMs;
+    this.maxGap = maxGap;
+    this.restartJump = restartJump;
+  }
+
+  /** Records a frame and returns {@code false} when it is a duplicate that should be dropped. */
+  synchronized boolean accept(long rawSeq, int msgIdHash, long receivedAt) {
+    long seq = rawSeq & SEQ_MASK;
+    boolean idle = receivedAt - lastSeenAt > resetAfterMs;
+    lastSeenAt = Math.max(lastSeenAt, receivedAt);
+    if (!started || idle) {
+      restart(seq, msgIdHash);
+      return true;
+    }
+    int delta = (int) (seq - highest);
+    if (delta > 0) {
+      if (delta > maxGap) {
+        restart(seq, msgIdHash);
+        return true;
+      }
+      advance(seq, delta);
+      mark(seq, msgIdHash);
+      received++;
+      return true;
+    }
+    if (-delta > mask || (-delta >= restartJump && seq < restartJump)) {
+      restart(seq, msgIdHash);
+      return true;
+    }
+    int slot = (int) (seq & mask);
+    if (isSeen(slot)) {
+      int previous = msgIdHashes[slot];
+      if (previous != 0 && msgIdHash != 0 && previous != msgIdHash) {
+        restart(seq, msgIdHash);
+        return true;
+      }
+      duplicates++;
+      return false;
+    }
+    mark(seq, msgIdHash);
+    received++;
+    reordered++;
+    if ((int) (seq - floor) > 0) {
+      lost--;
+    }
+    return true;
+  }
+
+  /** Receive time of the latest frame, for idle eviction. */
+  synchronized long lastSeenAt() {
+    return lastSeenAt;
+  }
+
+  public synchronized Stats stats() {
+    long total = received + lost;
+    return new Stats(
+        started ? highest : -1,
+        received,
+        duplicates,
+        lost,
+        reordered,
+        resets,
+        total == 0 ? 0 : (double) lost / total,
+        received == 0 ? 0 : (double) reordered / received);
+  }
+
+  /** Clears the slots of the numbers skipped between the old and the new highest. */
+  private void advance(long seq, int delta) {
+    if (delta > mask) {
+      Arrays.fill(seen, 0);
+    } else {
+      for (long n = (highest + 1) & SEQ_MASK; n != seq; n = (n + 1) & SEQ_MASK) {
+        int slot = (int) (n & mask);
+        seen[slot >>> 6] &= ~(1L << slot);
+      }
+    }
+    lost += delta - 1;
+    highest = seq;
+  }
+
+  private void restart(long seq, int msgIdHash) {
+    if (started) {
+      resets++;
+    }
+    started = true;
+    Arrays.fill(seen, 0);
+    highest = seq;
+    floor = seq;
+    mark(seq, msgIdHash);
+    received++;
+  }
+
+  private boolean isSeen(int slot) {
+    return (seen[slot >>> 6] & (1L << slot)) != 0;
+  }
+
+  private void mark(long seq, int msgIdHash) {
+    int slot = (int) (seq & mask);
+    seen[slot >>> 6] |= 1L << slot;
+    msgIdHashes[slot] = msgIdHash;
+  }
+}
@@ -0,0 +1,126 @@
+package com.example.uavbackend.telemetry;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.GZIPInputStream;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+
+/**
+ * Wire encodings a UAV may publish telemetry in, all on the same topic tree. MQTT 3.1.1 carries no
+ * content type, so the encoding is recognised from the first bytes: a JSON object starts with
+ * {@code '{'} (after whitespace), a CBOR map with major type 5 or the self-describe tag, a
+ * MessagePack map with {@code 0x80..0x8f}, {@code 0xde} or {@code 0xdf}. Any of them may be wrapped
+ * in gzip; the gzip trailer's CRC32 is verified while inflating.
+ */
+public enum TelemetryFormat {
+  JSON(new JsonFactory()),
+  CBOR(new CBORFactory()),
+  MSGPACK(new MessagePackFactory());
+
+  private static final int MAX_INFLATED_BYTES = 1 << 20;
+  private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+
+  private final JsonFactory factory;
+  private final ObjectMapper mapper;
+
+  TelemetryFormat(JsonFactory factory) {
+    this.factory = factory;
+    this.mapper = new ObjectMapper(factory);
+  }
+
+  public JsonFactory factory() {
+    return factory;
+  }
+
+  /** The encoding of an (already inflated) payload; unknown content is treated as JSON text. */
+  public static TelemetryFormat sniff(byte[] body) {
+    for (byte b : body) {
+      int c = b & 0xff;
+      if (c == ' ' || c == '\t' || c == '\r' || c == '\n') {
+        continue;
+      }
+      if ((c >= 0xa0 && c <= 0xbf) || c == 0xd9) {
+        return CBOR;
+      }
+      if ((c >= 0x80 && c <= 0x8f) || c == 0xde || c == 0xdf) {
+        return MSGPACK;
+      }
+      return JSON;
+    }
+    return JSON;
+  }
+
+  public static boolean isGzip(byte[] raw) {
+    return raw.length >= 18 && (raw[0] & 0xff) == 0x1f && (raw[1] & 0xff) == 0x8b;
+  }
+
+  /** Inflates a gzip payload; throws if it is truncated, corrupt (CRC32 mismatch) or too large. */
+  public static byte[] gunzip(byte[] raw) throws IOException {
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(raw), 512)) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length * 4);
+      byte[] buffer = new byte[1024];
+      int n;
+      while ((n = in.read(buffer)) > 0) {
+        if (out.size() + n > MAX_INFLATED_BYTES) {
+          throw new IOException("Inflated telemetry exceeds " + MAX_INFLATED_BYTES + " bytes");
+        }
+        out.write(buffer, 0, n);
+      }
+      return out.toByteArray();
+    }
+  }
+
+  /**
+   * Whether a stored payload can be copied verbatim into one line of NDJSON: a single well-formed
+   * JSON object with no raw CR/LF (pretty-printed JSON is split across lines and must be
+   * re-encoded). Parses the payload without building a tree; the buffer's position is unchanged.
+   */
+  public static boolean isSingleLineJsonObject(ByteBuffer payload) {
+    int start = payload.position();
+    int end = payload.limit();
+    while (start < end && isWhitespace(payload.get(start))) {
+      start++;
+    }
+    if (start == end || payload.get(start) != '{') {
+      return false;
+    }
+    for (int i = start; i < end; i++) {
+      byte b = payload.get(i);
+      if (b == '\r' || b == '\n') {
+        return false;
+      }
+    }
+    try (JsonParser parser = JSON.factory.createParser(new ByteBufferBackedInputStream(payload.duplicate()))) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        return false;
+      }
+      parser.skipChildren();
+      return parser.nextToken() == null;
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  /** Re-encodes a raw payload in any supported format (gzipped or not) as JSON. */
+  public static byte[] toJsonBytes(byte[] raw) throws IOException {
+    byte[] body = isGzip(raw) ? gunzip(raw) : raw;
+    return JSON_MAPPER.writeValueAsBytes(sniff(body).mapper.readTree(body));
+  }
+
+  private static boolean isWhitespace(byte b) {
+    return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+  }
+
+  /** Re-encodes a payload of this format as JSON text. */
+  String toJson(byte[] body) throws IOException {
+    return JSON_MAPPER.writeValueAsString(mapper.readTree(body));
+  }
+}
@@ -0,0 +1,186 @@
+package com.example.uavbackend.telemetry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One decoded telemetry message. Built once at ingest and shared read-only by every consumer
+ * (status monitor, aggregator, alert evaluation, WebSocket push), so nobody re-parses the payload.
+ *
+ * <p>Absent numeric fields are {@link Double#NaN}. Metrics from the {@code data} object are kept as
+ * parallel primitive arrays of {@link MetricKeys} slots and values.
+ */
+public final class TelemetryFrame {
+  private final String uavCode;
+  private final long receivedAt;
+  private final String status;
+  private final String missionId;
+  private final long seq;
+  private final int msgIdHash;
+  private final double lat;
+  private final double lng;
+  private final double alt;
+  private final double battery;
+  private final double speed;
+  private final int[] metricSlots;
+  private final double[] metricValues;
+  private final byte[] body;
+  private final TelemetryFormat format;
+  private final boolean jsonObject;
+  // JSON text of the payload, built on first use
+  private volatile String payload;
+
+  TelemetryFrame(
+      String uavCode,
+      long receivedAt,
+      String status,
+      String missionId,
+      long seq,
+      int msgIdHash,
+      double lat,
+      double lng,
+      double alt,
+      double battery,
+      double speed,
+      int[] metricSlots,
+      double[] metricValues,
+      byte[] body,
+      TelemetryFormat format,
+      boolean jsonObject) {
+    this.uavCode = uavCode;
+    this.receivedAt = receivedAt;
+    this.status = status;
+    this.missionId = missionId;
+    this.seq = seq;
+    this.msgIdHash = msgIdHash;
+    this.lat = lat;
+    this.lng = lng;
+    this.alt = alt;
+    this.battery = battery;
+    this.speed = speed;
+    this.metricSlots = metricSlots;
+    this.metricValues = metricValues;
+    this.body = body;
+    this.format = format;
+    this.jsonObject = jsonObject;
+  }
+
+  public String uavCode() {
+    return uavCode;
+  }
+
+  public long receivedAt() {
+    return receivedAt;
+  }
+
+  /** Upper-cased {@code status} field, or {@code null} when absent. */
+  public String status() {
+    return status;
+  }
+
+  public String missionId() {
+    return missionId;
+  }
+
+  /** Per-connection {@code seq} header, or {@code -1} when the payload has none. */
+  public long seq() {
+    return seq;
+  }
+
+  /** {@link String#hashCode()} of the {@code msgId} header, or {@code 0} when absent. */
+  public int msgIdHash() {
+    return msgIdHash;
+  }
+
+  public double lat() {
+    return lat;
+  }
+
+  public double lng() {
+    return lng;
+  }
+
+  public double alt() {
+    return alt;
+  }
+
+  public double battery() {
+    return battery;
+  }
+
+  public double speed() {
+    return speed;
+  }
+
+  public boolean hasPosition() {
+    return !Double.isNaN(lat) && !Double.isNaN(lng);
+  }
+
+  public int metricCount() {
+    return metricSlots.length;
+  }
+
+  public int metricSlot(int index) {
+    return metricSlots[index];
+  }
+
+  public double metricValue(int index) {
+    return metricValues[index];
+  }
+
+  /** Value of a metric slot, or {@code defaultValue} when this frame does not carry it. */
+  public double metric(int slot, double defaultValue) {
+    for (int i = 0; i < metricSlots.length; i++) {
+      if (metricSlots[i] == slot) {
+        return metricValues[i];
+      }
+    }
+    return defaultValue;
+  }
+
+  public double metric(String code, double defaultValue) {
+    int slot = MetricKeys.slotOf(code);
+    return slot < 0 ? defaultValue : metric(slot, defaultValue);
+  }
+
+  /**
+   * The payload as JSON text, forwarded verbatim to WebSocket clients and Redis. JSON payloads are
+   * returned as received; CBOR and MessagePack payloads are converted on first call.
+   */
+  public String payload() {
+    String json = payload;
+    if (json == null) {
+      json = toJson();
+      payload = json;
+    }
+    return json;
+  }
+
+  /** {@link #payload()} as UTF-8, without a copy for JSON payloads. Must not be modified. */
+  public byte[] payloadBytes() {
+    return format == TelemetryFormat.JSON ? body : payload().getBytes(StandardCharsets.UTF_8);
+  }
+
+  /** Encoding the payload arrived in (after gzip, if any, was removed). */
+  public TelemetryFormat format() {
+    return format;
+  }
+
+  private String toJson() {
+    if (format == TelemetryFormat.JSON || !jsonObject) {
+      return new String(body, StandardCharsets.UTF_8);
+    }
+    try {
+      return format.toJson(body);
+    } catch (IOException e) {
+      // cannot happen for a payload that decoded as an object
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** Whether {@link #payload()} parsed as a JSON object, i.e. can be embedded verbatim in JSON. */
+  public boolean isJsonObject() {
+    return jsonObject;
+  }
+}
@@ -0,0 +1,248 @@
+package com.example.uavbackend.telemetry;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Turns a raw telemetry payload into a {@link TelemetryFrame}. Unparseable payloads still yield a
+ * frame (with no decoded fields) because receiving anything means the UAV is online.
+ *
+ * <p>Works on the MQTT bytes directly: the encoding is sniffed (see {@link TelemetryFormat}) and a
+ * streaming parser picks out the fields below, skipping everything else, so no String copy of the
+ * payload and no tree is built on the ingest path.
+ */
+@Slf4j
+@Component
+public class TelemetryFrameDecoder {
+  private static final int[] NO_SLOTS = new int[0];
+  private static final double[] NO_VALUES = new double[0];
+
+  public TelemetryFrame decode(String uavCode, String payload) {
+    return decode(uavCode, payload, System.currentTimeMillis());
+  }
+
+  public TelemetryFrame decode(String uavCode, String payload, long receivedAt) {
+    return decode(uavCode, payload.getBytes(StandardCharsets.UTF_8), receivedAt);
+  }
+
+  public TelemetryFrame decode(String uavCode, byte[] raw, long receivedAt) {
+    byte[] body = raw;
+    if (TelemetryFormat.isGzip(raw)) {
+      try {
+        body = TelemetryFormat.gunzip(raw);
+      } catch (IOException e) {
+        log.debug("Telemetry payload failed to inflate, uavCode={}", uavCode, e);
+        return undecoded(uavCode, raw, TelemetryFormat.JSON, receivedAt);
+      }
+    }
+    TelemetryFormat format = TelemetryFormat.sniff(body);
+    Fields fields = new Fields();
+    try (JsonParser parser = format.factory().createParser(body)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        return undecoded(uavCode, body, format, receivedAt);
+      }
+      readRoot(parser, fields);
+    } catch (Exception e) {
+      log.debug("Telemetry payload is not a {} object, uavCode={}", format, uavCode);
+      return undecoded(uavCode, body, format, receivedAt);
+    }
+    // position is flat in the simulator, nested under location/position in the protocol document
+    double[] position = fields.flat[3] != 0 ? fields.flat : fields.location[3] != 0 ? fields.location : fields.position;
+    int[] slots = fields.slots;
+    double[] values = fields.values;
+    if (fields.metricCount == 0) {
+      slots = NO_SLOTS;
+      values = NO_VALUES;
+    } else if (fields.metricCount < slots.length) {
+      slots = Arrays.copyOf(slots, fields.metricCount);
+      values = Arrays.copyOf(values, fields.metricCount);
+    }
+    return new TelemetryFrame(
+        uavCode,
+        receivedAt,
+        fields.status,
+        fields.missionId,
+        fields.seq,
+        fields.msgIdHash,
+        position[0],
+        position[1],
+        position[2],
+        fields.hasBattery ? fields.battery : fields.batteryPercent,
+        fields.hasGroundSpeed ? fields.groundSpeed : fields.speed,
+        slots,
+        values,
+        body,
+        format,
+        true);
+  }
+
+  /** Field values collected while streaming; position arrays hold lat, lng, alt and a presence flag. */
+  private static final class Fields {
+    String status;
+    String missionId;
+    long seq = -1;
+    int msgIdHash;
+    final double[] flat = {Double.NaN, Double.NaN, Double.NaN, 0};
+    final double[] location = {Double.NaN, Double.NaN, Double.NaN, 0};
+    final double[] position = {Double.NaN, Double.NaN, Double.NaN, 0};
+    double battery = Double.NaN;
+    double batteryPercent = Double.NaN;
+    boolean hasBattery;
+    double groundSpeed = Double.NaN;
+    double speed = Double.NaN;
+    boolean hasGroundSpeed;
+    int[] slots = NO_SLOTS;
+    double[] values = NO_VALUES;
+    int metricCount;
+  }
+
+  private static void readRoot(JsonParser parser, Fields fields) throws IOException {
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String name = parser.currentName();
+      JsonToken token = parser.nextToken();
+      switch (name) {
+        case "status" -> fields.status = text(parser, token, true);
+        case "missionId" -> fields.missionId = text(parser, token, false);
+        case "seq" -> fields.seq = sequence(parser, token);
+        case "msgId" -> fields.msgIdHash = textHash(parser, token);
+        case "lat" -> {
+          fields.flat[0] = number(parser, token);
+          fields.flat[3] = 1;
+        }
+        case "lng" -> fields.flat[1] = number(parser, token);
+        case "alt" -> fields.flat[2] = number(parser, token);
+        case "location" -> readPosition(parser, token, fields.location);
+        case "position" -> readPosition(parser, token, fields.position);
+        case "battery" -> {
+          fields.battery = number(parser, token);
+          fields.hasBattery = true;
+        }
+        case "batteryPercent" -> fields.batteryPercent = number(parser, token);
+        case "groundSpeed" -> {
+          fields.groundSpeed = number(parser, token);
+          fields.hasGroundSpeed = true;
+        }
+        case "speed" -> fields.speed = number(parser, token);
+        case "data" -> readMetrics(parser, token, fields);
+        default -> parser.skipChildren();
+      }
+    }
+  }
+
+  private static void readPosition(JsonParser parser, JsonToken token, double[] target) throws IOException {
+    target[3] = 1;
+    if (token != JsonToken.START_OBJECT) {
+      parser.skipChildren();
+      return;
+    }
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String name = parser.currentName();
+      JsonToken value = parser.nextToken();
+      switch (name) {
+        case "lat" -> target[0] = number(parser, value);
+        case "lng" -> target[1] = number(parser, value);
+        case "alt" -> target[2] = number(parser, value);
+        default -> parser.skipChildren();
+      }
+    }
+  }
+
+  private static void readMetrics(JsonParser parser, JsonToken token, Fields fields) throws IOException {
+    if (token != JsonToken.START_OBJECT) {
+      parser.skipChildren();
+      return;
+    }
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String code = parser.currentName();
+      double value = number(parser, parser.nextToken());
+      if (Double.isNaN(value)) {
+        continue;
+      }
+      int slot = MetricKeys.register(code);
+      if (slot < 0) {
+        continue;
+      }
+      if (fields.metricCount == fields.slots.length) {
+        int capacity = Math.max(8, fields.slots.length * 2);
+        fields.slots = Arrays.copyOf(fields.slots, capacity);
+        fields.values = Arrays.copyOf(fields.values, capacity);
+      }
+      fields.slots[fields.metricCount] = slot;
+      fields.values[fields.metricCount] = value;
+      fields.metricCount++;
+    }
+  }
+
+  private static String text(JsonParser parser, JsonToken token, boolean upperCase) throws IOException {
+    if (token == JsonToken.VALUE_NULL) {
+      return null;
+    }
+    if (token.isStructStart()) {
+      parser.skipChildren();
+      return null;
+    }
+    String text = parser.getText().trim();
+    if (text.isEmpty()) {
+      return null;
+    }
+    return upperCase ? text.toUpperCase() : text;
+  }
+
+  /** Non-negative integer {@code seq}, read without going through a double; {@code -1} otherwise. */
+  private static long sequence(JsonParser parser, JsonToken token) throws IOException {
+    if (token == JsonToken.VALUE_NUMBER_INT && parser.getNumberType() != JsonParser.NumberType.BIG_INTEGER) {
+      long value = parser.getLongValue();
+      return value < 0 ? -1 : value;
+    }
+    if (token.isStructStart()) {
+      parser.skipChildren();
+    }
+    return -1;
+  }
+
+  /** {@link String#hashCode()} of a text value computed over the parser buffer, {@code 0} otherwise. */
+  private static int textHash(JsonParser parser, JsonToken token) throws IOException {
+    if (token != JsonToken.VALUE_STRING) {
+      if (token.isStructStart()) {
+        parser.skipChildren();
+      }
+      return 0;
+    }
+    char[] chars = parser.getTextCharacters();
+    int end = parser.getTextOffset() + parser.getTextLength();
+    int hash = 0;
+    for (int i = parser.getTextOffset(); i < end; i++) {
+      hash = 31 * hash + chars[i];
+    }
+    return hash;
+  }
+
+  /** Numbers and numeric strings become doubles, anything else NaN. */
+  private static double number(JsonParser parser, JsonToken token) throws IOException {
+    if (token.isNumeric()) {
+      return parser.getDoubleValue();
+    }
+    if (token == JsonToken.VALUE_STRING) {
+      try {
+        return Double.parseDouble(parser.getText());
+      } catch (NumberFormatException e) {
+        return Double.NaN;
+      }
+    }
+    if (token.isStructStart()) {
+      parser.skipChildren();
+    }
+    return Double.NaN;
+  }
+
+  private static TelemetryFrame undecoded(String uavCode, byte[] body, TelemetryFormat format, long receivedAt) {
+    return new TelemetryFrame(
+        uavCode, receivedAt, null, null, -1, 0, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN,
+        NO_SLOTS, NO_VALUES, body, format, false);
+  }
+}
@@ -0,0 +1,9 @@
+package com.example.uavbackend.telemetry;
+
+/**
+ * Receives every decoded frame on the ingest thread, right after it reached the snapshot store.
+ * Implementations must be quick and must not block; anything slow belongs on its own executor.
+ */
+public interface TelemetryFrameListener {
+  void onFrame(TelemetryFrame frame);
+}
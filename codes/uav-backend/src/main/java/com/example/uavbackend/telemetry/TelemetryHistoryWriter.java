@@ -0,0 +1,261 @@
+package com.example.uavbackend.telemetry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Write-behind persistence of telemetry history into {@code uav_telemetry}.
+ *
+ * <p>On the ingest thread a frame is only sampled (at most one per UAV per {@code
+ * telemetry.history.sample-interval-ms}) and put into a bounded buffer; a full buffer drops the
+ * frame and counts it as spilled. A single writer thread flushes the buffer with one multi-row
+ * INSERT whenever {@code batch-size} frames are waiting or {@code flush-interval-ms} has passed, so
+ * history writes use one connection and never run on request threads.
+ *
+ * <p>A flush is split into several statements when its estimated size would exceed {@code
+ * max-statement-bytes} (keep it under the server's {@code max_allowed_packet}). Positions and speeds
+ * outside their columns' range (latitude ±90, longitude ±180, DECIMAL(8,2) for altitude and speed)
+ * are stored as NULL and counted, since under strict SQL mode one such value fails the whole
+ * statement.
+ */
+@Slf4j
+@Component
+public class TelemetryHistoryWriter implements TelemetryFrameListener, SmartLifecycle {
+  private static final String INSERT_PREFIX =
+      "INSERT INTO uav_telemetry (uav_id, reported_at, battery_percent, location_lat, location_lng,"
+          + " location_alt, velocity_ms, raw_message) VALUES ";
+  private static final String ROW = "(?,?,?,?,?,?,?,?)";
+  private static final int COLUMNS = 8;
+  /** Estimated statement bytes per row besides the payload, which is counted twice for escaping. */
+  private static final int ROW_BYTES = 128;
+  private static final double MAX_DECIMAL_8_2 = 999_999.99;
+  /** How long an unknown UAV code is remembered before the device table is re-read. */
+  private static final long DEVICE_REFRESH_MS = 30_000;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final boolean enabled;
+  private final long sampleIntervalMs;
+  private final int batchSize;
+  private final long flushIntervalMs;
+  private final long maxStatementBytes;
+  private final ArrayBlockingQueue<TelemetryFrame> buffer;
+  // uavCode -> receive time of the last sampled frame; pruned by the writer once older than the interval
+  private final Map<String, Long> lastSampled = new ConcurrentHashMap<>();
+  // uavCode -> uav_devices.id, only touched by the writer thread
+  private final Map<String, Long> deviceIds = new ConcurrentHashMap<>();
+  private long devicesLoadedAt;
+  private final Counter written;
+  private final Counter sampledOut;
+  private final Counter spilled;
+  private final Counter unregistered;
+  private final Counter failed;
+  private final Counter outOfRange;
+  private final Timer flushTimer;
+
+  private volatile boolean running;
+  private Thread writerThread;
+
+  public TelemetryHistoryWriter(
+      JdbcTemplate jdbcTemplate,
+      MeterRegistry meterRegistry,
+      @Value("${telemetry.history.enabled:true}") boolean enabled,
+      @Value("${telemetry.history.sample-interval-ms:1000}") long sampleIntervalMs,
+      @Value("${telemetry.history.buffer-capacity:50000}") int bufferCapacity,
+      @Value("${telemetry.history.batch-size:2000}") int batchSize,
+      @Value("${telemetry.history.flush-interval-ms:1000}") long flushIntervalMs,
+      @Value("${telemetry.history.max-statement-bytes:4194304}") long maxStatementBytes) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.enabled = enabled;
+    this.sampleIntervalMs = sampleIntervalMs;
+    this.batchSize = Math.max(batchSize, 1);
+    this.flushIntervalMs = flushIntervalMs;
+    this.maxStatementBytes = maxStatementBytes;
+    this.buffer = new ArrayBlockingQueue<>(Math.max(bufferCapacity, 1));
+    this.written = meterRegistry.counter("telemetry.history.written");
+    this.sampledOut = meterRegistry.counter("telemetry.history.sampled-out");
+    this.spilled = meterRegistry.counter("telemetry.history.spilled");
+    this.unregistered = meterRegistry.counter("telemetry.history.unregistered");
+    this.failed = meterRegistry.counter("telemetry.history.failed");
+    this.outOfRange = meterRegistry.counter("telemetry.history.out-of-range");
+    this.flushTimer = meterRegistry.timer("telemetry.history.flush");
+    Gauge.builder("telemetry.history.buffer", buffer, ArrayBlockingQueue::size).register(meterRegistry);
+  }
+
+  @Override
+  public void onFrame(TelemetryFrame frame) {
+    if (!enabled) {
+      return;
+    }
+    Long last = lastSampled.get(frame.uavCode());
+    if (last != null && frame.receivedAt() - last < sampleIntervalMs) {
+      sampledOut.increment();
+      return;
+    }
+    lastSampled.put(frame.uavCode(), frame.receivedAt());
+    if (!buffer.offer(frame)) {
+      spilled.increment();
+    }
+  }
+
+  private void writeLoop() {
+    List<TelemetryFrame> batch = new ArrayList<>(batchSize);
+    long lastFlush = System.currentTimeMillis();
+    long lastPrune = lastFlush;
+    while (running) {
+      try {
+        TelemetryFrame frame = buffer.poll(Math.max(1, flushIntervalMs / 4), TimeUnit.MILLISECONDS);
+        if (frame != null) {
+          batch.add(frame);
+          buffer.drainTo(batch, batchSize - batch.size());
+        }
+        long now = System.currentTimeMillis();
+        if (batch.size() >= batchSize || (!batch.isEmpty() && now - lastFlush >= flushIntervalMs)) {
+          flushTimer.record(() -> flush(batch));
+          batch.clear();
+          lastFlush = now;
+        }
+        if (now - lastPrune >= Math.max(sampleIntervalMs, 1000)) {
+          // an entry past the interval no longer holds anything back; only UAVs still reporting stay
+          long cutoff = now - sampleIntervalMs;
+          lastSampled.values().removeIf(at -> at < cutoff);
+          lastPrune = now;
+        }
+      } catch (InterruptedException e) {
+        if (!running) {
+          break;
+        }
+      }
+    }
+    // shutting down: write what is already buffered, then leave
+    do {
+      flush(batch);
+      batch.clear();
+    } while (buffer.drainTo(batch, batchSize) > 0);
+  }
+
+  private void flush(List<TelemetryFrame> batch) {
+    List<Object> args = new ArrayList<>(batch.size() * COLUMNS);
+    int rows = 0;
+    long bytes = 0;
+    for (TelemetryFrame frame : batch) {
+      Long uavId = deviceId(frame.uavCode());
+      if (uavId == null) {
+        unregistered.increment();
+        continue;
+      }
+      long rowBytes = ROW_BYTES + 2L * frame.payloadBytes().length;
+      if (rows > 0 && bytes + rowBytes > maxStatementBytes) {
+        insert(args, rows);
+        args.clear();
+        rows = 0;
+        bytes = 0;
+      }
+      args.add(uavId);
+      args.add(new Timestamp(frame.receivedAt()));
+      args.add(Double.isNaN(frame.battery()) ? null : (int) Math.round(Math.max(0, Math.min(100, frame.battery()))));
+      args.add(bounded(frame.lat(), 90));
+      args.add(bounded(frame.lng(), 180));
+      args.add(bounded(frame.alt(), MAX_DECIMAL_8_2));
+      args.add(bounded(frame.speed(), MAX_DECIMAL_8_2));
+      args.add(frame.payload());
+      rows++;
+      bytes += rowBytes;
+    }
+    if (rows > 0) {
+      insert(args, rows);
+    }
+  }
+
+  private void insert(List<Object> args, int rows) {
+    StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + rows * (ROW.length() + 1));
+    sql.append(INSERT_PREFIX);
+    for (int i = 0; i < rows; i++) {
+      if (i > 0) {
+        sql.append(',');
+      }
+      sql.append(ROW);
+    }
+    try {
+      jdbcTemplate.update(sql.toString(), args.toArray());
+      written.increment(rows);
+    } catch (Exception e) {
+      failed.increment(rows);
+      log.warn("Telemetry history flush failed, rows={}", rows, e);
+    }
+  }
+
+  private Long deviceId(String uavCode) {
+    Long id = deviceIds.get(uavCode);
+    if (id == null && System.currentTimeMillis() - devicesLoadedAt > DEVICE_REFRESH_MS) {
+      devicesLoadedAt = System.currentTimeMillis();
+      try {
+        jdbcTemplate.query(
+            "SELECT id, uav_code FROM uav_devices",
+            rs -> {
+              deviceIds.put(rs.getString("uav_code"), rs.getLong("id"));
+            });
+      } catch (Exception e) {
+        log.warn("Loading UAV ids for telemetry history failed", e);
+      }
+      id = deviceIds.get(uavCode);
+    }
+    return id;
+  }
+
+  /** Null for a missing value or one whose magnitude exceeds {@code limit}; the latter is counted. */
+  private Double bounded(double value, double limit) {
+    if (Double.isNaN(value)) {
+      return null;
+    }
+    if (!(Math.abs(value) <= limit)) {
+      outOfRange.increment();
+      return null;
+    }
+    return value;
+  }
+
+  @Override
+  public void start() {
+    if (!enabled) {
+      return;
+    }
+    running = true;
+    writerThread = new Thread(this::writeLoop, "telemetry-history");
+    writerThread.setDaemon(true);
+    writerThread.start();
+    log.info("Telemetry history writer started, sampleIntervalMs={}, batchSize={}, flushIntervalMs={}",
+        sampleIntervalMs, batchSize, flushIntervalMs);
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    if (writerThread != null) {
+      writerThread.interrupt();
+      try {
+        writerThread.join(TimeUnit.SECONDS.toMillis(5));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+}
@@ -0,0 +1,219 @@
+package com.example.uavbackend.telemetry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded hand-off between the MQTT callback thread and telemetry processing.
+ *
+ * <p>The Paho thread only enqueues; a single drain thread decodes frames in batches, updates the
+ * snapshot store and notifies every {@link TelemetryFrameListener}, so a slow consumer can no longer
+ * stall the MQTT client and each UAV's frames are seen in arrival order. What happens when the
+ * buffer is full is chosen by {@code telemetry.ingest.overflow-policy}:
+ *
+ * <ul>
+ *   <li>{@code BLOCK} – the MQTT thread waits for space (no loss, but back-pressures the broker);
+ *   <li>{@code DROP_OLDEST} – the oldest queued frame is discarded;
+ *   <li>{@code COALESCE} – at most one pending frame per UAV, newer frames replace older ones.
+ * </ul>
+ */
+@Slf4j
+@Component
+public class TelemetryIngestPipeline implements SmartLifecycle {
+  public enum OverflowPolicy {
+    BLOCK,
+    DROP_OLDEST,
+    COALESCE
+  }
+
+  private record IngestItem(String uavCode, byte[] payload, long receivedAt) {}
+
+  private final TelemetryFrameDecoder frameDecoder;
+  private final TelemetrySequenceTracker sequenceTracker;
+  private final TelemetrySnapshotStore snapshotStore;
+  private final TelemetryRedisMirror redisMirror;
+  private final ObjectProvider<TelemetryFrameListener> listenerProvider;
+  private final OverflowPolicy policy;
+  private final int capacity;
+  private final int batchSize;
+  private final ArrayBlockingQueue<IngestItem> queue;
+  // COALESCE: FIFO of UAVs with a pending frame plus the latest frame of each
+  private final ArrayBlockingQueue<String> pendingOrder;
+  private final Map<String, IngestItem> pending = new ConcurrentHashMap<>();
+  private final Counter enqueued;
+  private final Counter dropped;
+  private final Counter coalesced;
+
+  private List<TelemetryFrameListener> listeners = List.of();
+  private volatile boolean running;
+  private Thread drainThread;
+
+  public TelemetryIngestPipeline(
+      TelemetryFrameDecoder frameDecoder,
+      TelemetrySequenceTracker sequenceTracker,
+      TelemetrySnapshotStore snapshotStore,
+      TelemetryRedisMirror redisMirror,
+      ObjectProvider<TelemetryFrameListener> listenerProvider,
+      MeterRegistry meterRegistry,
+      @Value("${telemetry.ingest.capacity:10000}") int capacity,
+      @Value("${telemetry.ingest.batch-size:256}") int batchSize,
+      @Value("${telemetry.ingest.overflow-policy:DROP_OLDEST}") OverflowPolicy policy) {
+    this.frameDecoder = frameDecoder;
+    this.sequenceTracker = sequenceTracker;
+    this.snapshotStore = snapshotStore;
+    this.redisMirror = redisMirror;
+    this.listenerProvider = listenerProvider;
+    this.policy = policy;
+    this.capacity = capacity;
+    this.batchSize = Math.max(batchSize, 1);
+    this.queue = policy == OverflowPolicy.COALESCE ? null : new ArrayBlockingQueue<>(capacity);
+    this.pendingOrder = policy == OverflowPolicy.COALESCE ? new ArrayBlockingQueue<>(capacity) : null;
+    this.enqueued = meterRegistry.counter("telemetry.ingest.enqueued");
+    this.dropped = meterRegistry.counter("telemetry.ingest.dropped");
+    this.coalesced = meterRegistry.counter("telemetry.ingest.coalesced");
+    Gauge.builder("telemetry.ingest.depth", this, TelemetryIngestPipeline::depth).register(meterRegistry);
+    Gauge.builder("telemetry.ingest.capacity", () -> capacity).register(meterRegistry);
+  }
+
+  public void offer(String uavCode, String payload) {
+    offer(uavCode, payload.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Called from the MQTT callback thread with the raw message bytes; never does more than a queue
+   * operation.
+   */
+  public void offer(String uavCode, byte[] payload) {
+    IngestItem item = new IngestItem(uavCode, payload, System.currentTimeMillis());
+    switch (policy) {
+      case BLOCK -> {
+        try {
+          queue.put(item);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          dropped.increment();
+          return;
+        }
+      }
+      case DROP_OLDEST -> {
+        while (!queue.offer(item)) {
+          if (queue.poll() != null) {
+            dropped.increment();
+          }
+        }
+      }
+      case COALESCE -> {
+        if (pending.put(uavCode, item) != null) {
+          // the UAV is already queued; the drain thread will pick up this newer frame
+          coalesced.increment();
+        } else if (!pendingOrder.offer(uavCode)) {
+          pending.remove(uavCode, item);
+          dropped.increment();
+          return;
+        }
+      }
+    }
+    enqueued.increment();
+  }
+
+  public int depth() {
+    return policy == OverflowPolicy.COALESCE ? pendingOrder.size() : queue.size();
+  }
+
+  private void drainLoop() {
+    List<IngestItem> batch = new ArrayList<>(batchSize);
+    List<String> codes = policy == OverflowPolicy.COALESCE ? new ArrayList<>(batchSize) : null;
+    while (running) {
+      try {
+        if (policy == OverflowPolicy.COALESCE) {
+          String first = pendingOrder.poll(100, TimeUnit.MILLISECONDS);
+          if (first == null) {
+            continue;
+          }
+          codes.add(first);
+          pendingOrder.drainTo(codes, batchSize - 1);
+          for (String uavCode : codes) {
+            IngestItem item = pending.remove(uavCode);
+            if (item != null) {
+              batch.add(item);
+            }
+          }
+          codes.clear();
+        } else {
+          IngestItem first = queue.poll(100, TimeUnit.MILLISECONDS);
+          if (first == null) {
+            continue;
+          }
+          batch.add(first);
+          queue.drainTo(batch, batchSize - 1);
+        }
+        for (IngestItem item : batch) {
+          process(item);
+        }
+        batch.clear();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  private void process(IngestItem item) {
+    try {
+      // decode exactly once; every downstream consumer works on the shared frame
+      TelemetryFrame frame = frameDecoder.decode(item.uavCode(), item.payload(), item.receivedAt());
+      if (!sequenceTracker.accept(frame)) {
+        // QoS 1 redelivery: already stored and seen by every listener
+        return;
+      }
+      snapshotStore.put(frame);
+      redisMirror.enqueue(frame.uavCode(), frame.payloadBytes());
+      for (TelemetryFrameListener listener : listeners) {
+        try {
+          listener.onFrame(frame);
+        } catch (Exception e) {
+          log.warn("Telemetry listener {} failed, uavCode={}", listener.getClass().getSimpleName(), frame.uavCode(), e);
+        }
+      }
+    } catch (Exception e) {
+      log.error("Telemetry ingest failed, uavCode={}, payloadBytes={}", item.uavCode(), item.payload().length, e);
+    }
+  }
+
+  @Override
+  public void start() {
+    // resolved here rather than injected: listeners depend on services that depend on this pipeline
+    listeners = listenerProvider.orderedStream().toList();
+    running = true;
+    drainThread = new Thread(this::drainLoop, "telemetry-ingest");
+    drainThread.setDaemon(true);
+    drainThread.start();
+    log.info("Telemetry ingest pipeline started, policy={}, capacity={}, batchSize={}", policy, capacity, batchSize);
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    if (drainThread != null) {
+      drainThread.interrupt();
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+}
@@ -0,0 +1,124 @@
+package com.example.uavbackend.telemetry;
+
+import com.example.uavbackend.config.ScheduledJobMonitor;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Optional write-behind copy of the snapshot store under {@code uav:telemetry:{uavCode}}, so other
+ * nodes and external tools can still read live telemetry from Redis.
+ *
+ * <p>Only the latest payload per UAV is kept between flushes and the whole batch goes out in one
+ * pipelined round trip, so the MQTT path never waits on Redis.
+ *
+ * <p>In cluster mode this is also how a node sees the live state of UAVs owned by other nodes; see
+ * {@link #read}.
+ */
+@Slf4j
+@Component
+public class TelemetryRedisMirror {
+  public static final String KEY_PREFIX = "uav:telemetry:";
+
+  private final StringRedisTemplate redisTemplate;
+  private final ScheduledJobMonitor jobMonitor;
+  private final Map<String, byte[]> pending = new ConcurrentHashMap<>();
+
+  @Value("${telemetry.redis-mirror.enabled:true}")
+  private boolean enabled;
+
+  @Value("${telemetry.snapshot.ttl-ms:2000}")
+  private long ttlMs;
+
+  @Value("${telemetry.redis-mirror.flush-interval-ms:500}")
+  private long flushIntervalMs;
+
+  public TelemetryRedisMirror(StringRedisTemplate redisTemplate, ScheduledJobMonitor jobMonitor) {
+    this.redisTemplate = redisTemplate;
+    this.jobMonitor = jobMonitor;
+  }
+
+  public void enqueue(String uavCode, byte[] payload) {
+    if (enabled) {
+      pending.put(uavCode, payload);
+    }
+  }
+
+  /**
+   * Latest mirrored payload of each given UAV, in one MGET. UAVs without a key (no frame within
+   * {@code telemetry.snapshot.ttl-ms}) are absent; a Redis failure is logged and yields an empty map.
+   */
+  public Map<String, byte[]> read(Collection<String> uavCodes) {
+    if (uavCodes.isEmpty()) {
+      return Map.of();
+    }
+    List<String> codes = List.copyOf(uavCodes);
+    byte[][] keys = new byte[codes.size()][];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = (KEY_PREFIX + codes.get(i)).getBytes(StandardCharsets.UTF_8);
+    }
+    try {
+      List<byte[]> values =
+          redisTemplate.execute((RedisCallback<List<byte[]>>) connection -> connection.stringCommands().mGet(keys));
+      Map<String, byte[]> result = new HashMap<>();
+      for (int i = 0; values != null && i < values.size(); i++) {
+        if (values.get(i) != null) {
+          result.put(codes.get(i), values.get(i));
+        }
+      }
+      return result;
+    } catch (Exception e) {
+      log.warn("Reading {} mirrored telemetry keys failed", codes.size(), e);
+      return Map.of();
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${telemetry.redis-mirror.flush-interval-ms:500}")
+  public void flush() {
+    if (pending.isEmpty()) {
+      return;
+    }
+    jobMonitor.run("telemetry.redis-mirror", flushIntervalMs, this::flushPending);
+  }
+
+  private void flushPending() {
+    List<Map.Entry<String, byte[]>> batch = new ArrayList<>(pending.size());
+    for (String uavCode : pending.keySet()) {
+      byte[] payload = pending.remove(uavCode);
+      if (payload != null) {
+        batch.add(Map.entry(uavCode, payload));
+      }
+    }
+    Expiration expiration = Expiration.milliseconds(ttlMs);
+    try {
+      redisTemplate.executePipelined(
+          (RedisCallback<Object>)
+              connection -> {
+                RedisStringCommands commands = connection.stringCommands();
+                for (Map.Entry<String, byte[]> entry : batch) {
+                  commands.set(
+                      (KEY_PREFIX + entry.getKey()).getBytes(StandardCharsets.UTF_8),
+                      entry.getValue(),
+                      expiration,
+                      RedisStringCommands.SetOption.upsert());
+                }
+                return null;
+              });
+    } catch (Exception e) {
+      // mirror is best-effort; the next flush carries fresher frames anyway
+      log.debug("Telemetry Redis mirror flush failed, size={}", batch.size(), e);
+    }
+  }
+}
@@ -0,0 +1,141 @@
+package com.example.uavbackend.telemetry;
+
+import java.sql.Timestamp;
+import java.util.Arrays;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reads rollups for charting. The caller gives a time range and a point budget; the step is the
+ * range divided by the budget, and rows come from the coarsest stored resolution that is not
+ * coarser than that step. With 500 points a six-hour chart reads 10 s rows and a one-day chart
+ * 1 min rows. When the step is wider than the stored windows, consecutive rows are merged into
+ * step-sized buckets.
+ */
+@Component
+@RequiredArgsConstructor
+public class TelemetryRollupReader {
+  public static final int MAX_POINTS = 5000;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /** Column arrays of one metric, oldest bucket first; {@code ts} is the bucket start. */
+  public record Series(
+      RollupResolution source,
+      long stepMs,
+      int count,
+      long[] ts,
+      int[] samples,
+      double[] min,
+      double[] max,
+      double[] avg,
+      double[] last) {}
+
+  /**
+   * Buckets of {@code metric} in {@code [fromMs, toMs)}: about {@code maxPoints} of them, one more
+   * when the range does not start on a step boundary.
+   */
+  public Series query(String uavCode, String metric, long fromMs, long toMs, int maxPoints) {
+    int budget = Math.max(1, Math.min(maxPoints, MAX_POINTS));
+    long range = Math.max(toMs - fromMs, 1);
+    long step = Math.max(RollupResolution.SECOND.millis(), (range + budget - 1) / budget);
+    RollupResolution source = RollupResolution.forStep(step);
+    // whole source windows per bucket, so no window is split across two buckets
+    long stepMs = (step + source.millis() - 1) / source.millis() * source.millis();
+    Buckets buckets = new Buckets(source, stepMs, (int) Math.min(budget + 1L, range / stepMs + 2));
+    jdbcTemplate.query(
+        "SELECT window_start, sample_count, min_value, max_value, avg_value, last_value FROM "
+            + source.table()
+            + " WHERE uav_code = ? AND metric = ? AND window_start >= ? AND window_start < ?"
+            + " ORDER BY window_start",
+        rs -> {
+          buckets.add(
+              rs.getTimestamp(1).getTime(),
+              rs.getInt(2),
+              rs.getDouble(3),
+              rs.getDouble(4),
+              rs.getDouble(5),
+              rs.getDouble(6));
+        },
+        uavCode,
+        metric,
+        new Timestamp(fromMs),
+        new Timestamp(toMs));
+    return buckets.toSeries();
+  }
+
+  /** Merges ordered rows into step-aligned buckets; the average is weighted by sample count. */
+  private static final class Buckets {
+    final RollupResolution source;
+    final long stepMs;
+    long[] ts;
+    int[] samples;
+    double[] min;
+    double[] max;
+    double[] sum;
+    double[] last;
+    int count;
+
+    Buckets(RollupResolution source, long stepMs, int capacity) {
+      this.source = source;
+      this.stepMs = stepMs;
+      ts = new long[capacity];
+      samples = new int[capacity];
+      min = new double[capacity];
+      max = new double[capacity];
+      sum = new double[capacity];
+      last = new double[capacity];
+    }
+
+    void add(long windowStart, int n, double lo, double hi, double avg, double latest) {
+      long bucket = windowStart - Math.floorMod(windowStart, stepMs);
+      int i = count - 1;
+      if (count == 0 || ts[i] != bucket) {
+        if (count == ts.length) {
+          grow();
+        }
+        i = count++;
+        ts[i] = bucket;
+        samples[i] = n;
+        min[i] = lo;
+        max[i] = hi;
+        sum[i] = avg * n;
+        last[i] = latest;
+        return;
+      }
+      samples[i] += n;
+      min[i] = Math.min(min[i], lo);
+      max[i] = Math.max(max[i], hi);
+      sum[i] += avg * n;
+      last[i] = latest;
+    }
+
+    private void grow() {
+      int capacity = Math.max(16, ts.length * 2);
+      ts = Arrays.copyOf(ts, capacity);
+      samples = Arrays.copyOf(samples, capacity);
+      min = Arrays.copyOf(min, capacity);
+      max = Arrays.copyOf(max, capacity);
+      sum = Arrays.copyOf(sum, capacity);
+      last = Arrays.copyOf(last, capacity);
+    }
+
+    Series toSeries() {
+      double[] avg = new double[count];
+      for (int i = 0; i < count; i++) {
+        avg[i] = samples[i] == 0 ? Double.NaN : sum[i] / samples[i];
+      }
+      return new Series(
+          source,
+          stepMs,
+          count,
+          Arrays.copyOf(ts, count),
+          Arrays.copyOf(samples, count),
+          Arrays.copyOf(min, count),
+          Arrays.copyOf(max, count),
+          avg,
+          Arrays.copyOf(last, count));
+    }
+  }
+}
@@ -0,0 +1,262 @@
+package com.example.uavbackend.telemetry;
+
+import com.example.uavbackend.telemetry.RollupWindows.RollupRow;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Streaming 1 s / 10 s / 1 min rollups of every UAV metric (count, min, max, avg, last), persisted
+ * to the {@code uav_telemetry_rollup_*} tables.
+ *
+ * <p>The ingest thread folds each frame into the UAV's {@link RollupWindows}; when a frame starts a
+ * new window the previous one is handed to a bounded buffer (full buffer: rows are dropped and
+ * counted as spilled). A single writer thread closes windows of UAVs that went quiet ({@code
+ * close-grace-ms} after the window end), dropping a UAV's windows once all are closed, and flushes rows with one multi-row upsert per table
+ * whenever {@code batch-size} rows are waiting or {@code flush-interval-ms} has passed. The upsert
+ * merges into an existing row, so a window written twice (a late frame, or a UAV moving between
+ * cluster nodes) still adds up.
+ */
+@Slf4j
+@Component
+public class TelemetryRollupWriter implements TelemetryFrameListener, SmartLifecycle {
+  private static final String ROW = "(?,?,?,?,?,?,?,?)";
+  private static final int COLUMNS = 8;
+  // avg_value first: it must see the old sample_count
+  private static final String UPSERT_SUFFIX =
+      " ON DUPLICATE KEY UPDATE"
+          + " avg_value = (avg_value * sample_count + VALUES(avg_value) * VALUES(sample_count))"
+          + " / (sample_count + VALUES(sample_count)),"
+          + " sample_count = sample_count + VALUES(sample_count),"
+          + " min_value = LEAST(min_value, VALUES(min_value)),"
+          + " max_value = GREATEST(max_value, VALUES(max_value)),"
+          + " last_value = VALUES(last_value)";
+  private static final int DELETE_CHUNK = 5000;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final boolean enabled;
+  private final int batchSize;
+  private final long flushIntervalMs;
+  private final long closeGraceMs;
+  private final Map<RollupResolution, Long> retentionMs = new EnumMap<>(RollupResolution.class);
+  private final ArrayBlockingQueue<RollupRow> buffer;
+  private final Map<String, RollupWindows> windows = new ConcurrentHashMap<>();
+  private final Consumer<RollupRow> enqueue = this::enqueue;
+  private final Counter written;
+  private final Counter spilled;
+  private final Counter failed;
+  private final Timer flushTimer;
+
+  private volatile boolean running;
+  private Thread writerThread;
+
+  public TelemetryRollupWriter(
+      JdbcTemplate jdbcTemplate,
+      MeterRegistry meterRegistry,
+      @Value("${telemetry.rollup.enabled:true}") boolean enabled,
+      @Value("${telemetry.rollup.buffer-capacity:100000}") int bufferCapacity,
+      @Value("${telemetry.rollup.batch-size:2000}") int batchSize,
+      @Value("${telemetry.rollup.flush-interval-ms:1000}") long flushIntervalMs,
+      @Value("${telemetry.rollup.close-grace-ms:2000}") long closeGraceMs,
+      @Value("${telemetry.rollup.retention-hours.1s:24}") long retention1s,
+      @Value("${telemetry.rollup.retention-hours.10s:168}") long retention10s,
+      @Value("${telemetry.rollup.retention-hours.1m:2160}") long retention1m) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.enabled = enabled;
+    this.batchSize = Math.max(batchSize, 1);
+    this.flushIntervalMs = flushIntervalMs;
+    this.closeGraceMs = closeGraceMs;
+    retentionMs.put(RollupResolution.SECOND, TimeUnit.HOURS.toMillis(retention1s));
+    retentionMs.put(RollupResolution.TEN_SECONDS, TimeUnit.HOURS.toMillis(retention10s));
+    retentionMs.put(RollupResolution.MINUTE, TimeUnit.HOURS.toMillis(retention1m));
+    this.buffer = new ArrayBlockingQueue<>(Math.max(bufferCapacity, 1));
+    this.written = meterRegistry.counter("telemetry.rollup.written");
+    this.spilled = meterRegistry.counter("telemetry.rollup.spilled");
+    this.failed = meterRegistry.counter("telemetry.rollup.failed");
+    this.flushTimer = meterRegistry.timer("telemetry.rollup.flush");
+    Gauge.builder("telemetry.rollup.buffer", buffer, ArrayBlockingQueue::size).register(meterRegistry);
+    Gauge.builder("telemetry.rollup.uavs", windows, Map::size).register(meterRegistry);
+  }
+
+  @Override
+  public void onFrame(TelemetryFrame frame) {
+    if (!enabled) {
+      return;
+    }
+    while (true) {
+      RollupWindows uavWindows = windows.get(frame.uavCode());
+      if (uavWindows == null) {
+        uavWindows = windows.computeIfAbsent(frame.uavCode(), RollupWindows::new);
+      }
+      if (uavWindows.add(frame, enqueue)) {
+        return;
+      }
+      // retired by the writer between the lookup and the add
+      windows.remove(frame.uavCode(), uavWindows);
+    }
+  }
+
+  private void enqueue(RollupRow row) {
+    if (!buffer.offer(row)) {
+      spilled.increment();
+    }
+  }
+
+  private void writeLoop() {
+    List<RollupRow> batch = new ArrayList<>(batchSize);
+    long lastFlush = System.currentTimeMillis();
+    long lastSweep = lastFlush;
+    while (running) {
+      try {
+        RollupRow row = buffer.poll(Math.max(1, flushIntervalMs / 4), TimeUnit.MILLISECONDS);
+        if (row != null) {
+          batch.add(row);
+          buffer.drainTo(batch, batchSize - batch.size());
+        }
+        long now = System.currentTimeMillis();
+        if (now - lastSweep >= 1000) {
+          // windows of UAVs that stopped reporting never see the frame that would close them
+          windows.forEach(
+              (uavCode, uavWindows) -> {
+                if (uavWindows.closeExpired(now, closeGraceMs, enqueue)) {
+                  windows.remove(uavCode, uavWindows);
+                }
+              });
+          lastSweep = now;
+        }
+        if (batch.size() >= batchSize || (!batch.isEmpty() && now - lastFlush >= flushIntervalMs)) {
+          flushTimer.record(() -> flush(batch));
+          batch.clear();
+          lastFlush = now;
+        }
+      } catch (InterruptedException e) {
+        if (!running) {
+          break;
+        }
+      }
+    }
+    // shutting down: close every open window and write what is buffered, then leave
+    for (RollupWindows uavWindows : windows.values()) {
+      uavWindows.closeExpired(Long.MAX_VALUE, 0, enqueue);
+    }
+    do {
+      flush(batch);
+      batch.clear();
+    } while (buffer.drainTo(batch, batchSize) > 0);
+  }
+
+  private void flush(List<RollupRow> batch) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    Map<RollupResolution, List<RollupRow>> byTable = new EnumMap<>(RollupResolution.class);
+    for (RollupRow row : batch) {
+      byTable.computeIfAbsent(row.resolution(), r -> new ArrayList<>()).add(row);
+    }
+    byTable.forEach(this::upsert);
+  }
+
+  private void upsert(RollupResolution resolution, List<RollupRow> rows) {
+    String prefix =
+        "INSERT INTO " + resolution.table() + " (uav_code, metric, window_start, sample_count, min_value,"
+            + " max_value, avg_value, last_value) VALUES ";
+    StringBuilder sql =
+        new StringBuilder(prefix.length() + rows.size() * (ROW.length() + 1) + UPSERT_SUFFIX.length());
+    sql.append(prefix);
+    List<Object> args = new ArrayList<>(rows.size() * COLUMNS);
+    for (int i = 0; i < rows.size(); i++) {
+      RollupRow row = rows.get(i);
+      if (i > 0) {
+        sql.append(',');
+      }
+      sql.append(ROW);
+      args.add(row.uavCode());
+      args.add(row.metric());
+      args.add(new Timestamp(row.windowStart()));
+      args.add(row.count());
+      args.add(row.min());
+      args.add(row.max());
+      args.add(row.avg());
+      args.add(row.last());
+    }
+    sql.append(UPSERT_SUFFIX);
+    try {
+      jdbcTemplate.update(sql.toString(), args.toArray());
+      written.increment(rows.size());
+    } catch (Exception e) {
+      failed.increment(rows.size());
+      log.warn("Telemetry rollup flush failed, table={}, rows={}", resolution.table(), rows.size(), e);
+    }
+  }
+
+  /** Deletes rows past each table's retention, in chunks so no statement holds locks for long. */
+  @Scheduled(
+      initialDelayString = "${telemetry.rollup.retention-check-ms:3600000}",
+      fixedDelayString = "${telemetry.rollup.retention-check-ms:3600000}")
+  public void purgeExpired() {
+    if (!enabled) {
+      return;
+    }
+    long now = System.currentTimeMillis();
+    retentionMs.forEach(
+        (resolution, retention) -> {
+          Timestamp cutoff = new Timestamp(now - retention);
+          try {
+            int deleted;
+            do {
+              deleted =
+                  jdbcTemplate.update(
+                      "DELETE FROM " + resolution.table() + " WHERE window_start < ? LIMIT " + DELETE_CHUNK, cutoff);
+            } while (deleted == DELETE_CHUNK);
+          } catch (Exception e) {
+            log.warn("Telemetry rollup retention failed, table={}", resolution.table(), e);
+          }
+        });
+  }
+
+  @Override
+  public void start() {
+    if (!enabled) {
+      return;
+    }
+    running = true;
+    writerThread = new Thread(this::writeLoop, "telemetry-rollup");
+    writerThread.setDaemon(true);
+    writerThread.start();
+    log.info("Telemetry rollup writer started, batchSize={}, flushIntervalMs={}", batchSize, flushIntervalMs);
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    if (writerThread != null) {
+      writerThread.interrupt();
+      try {
+        writerThread.join(TimeUnit.SECONDS.toMillis(5));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+}
@@ -0,0 +1,289 @@
+package com.example.uavbackend.telemetry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Local append-only log of raw MQTT telemetry for replay, kept as memory-mapped {@link LogSegment}
+ * files under {@code telemetry.segment-log.dir}.
+ *
+ * <p>The MQTT thread only offers the payload to a bounded buffer (full buffer: the frame is dropped
+ * from the log and counted, ingest is unaffected). A single appender thread drains it in batches,
+ * copies each record into the active segment and publishes the batch to readers. A full segment is
+ * sealed (flushed, index written) and a new one started; the oldest sealed segments are deleted
+ * while the log exceeds {@code max-bytes}. A process crash loses nothing the appender wrote, since
+ * the pages belong to the OS; a power loss may lose the unsealed tail, which is cut at the first
+ * record whose CRC does not match when the segment is reopened.
+ *
+ * <p>Readers iterate segments oldest first and get read-only slices of the mappings, no copies. A
+ * segment removed by retention stays mapped until the reads using it finish, then it is unmapped and
+ * deleted.
+ *
+ * <p>Off by default. The log only holds frames ingested by this node, so in cluster mode a replay
+ * covers the UAVs this node owned at the time.
+ */
+@Slf4j
+@Component
+public class TelemetrySegmentLog implements SmartLifecycle {
+  private static final int DRAIN_BATCH = 4096;
+  private static final int MAX_CODE_BYTES = 255;
+
+  /** Receives matching records; return {@code false} to stop the scan. */
+  @FunctionalInterface
+  public interface RecordVisitor {
+    boolean visit(long receivedAt, ByteBuffer payload);
+  }
+
+  private record Entry(String uavCode, long receivedAt, byte[] payload) {}
+
+  private final boolean enabled;
+  private final Path dir;
+  private final int segmentBytes;
+  private final int blockBytes;
+  private final long maxBytes;
+  private final ArrayBlockingQueue<Entry> buffer;
+  private final List<LogSegment> segments = new CopyOnWriteArrayList<>();
+  private final Counter appended;
+  private final Counter dropped;
+  private final Counter failed;
+
+  // appender thread only
+  private final Map<String, byte[]> codes = new HashMap<>();
+  private final CRC32 crc = new CRC32();
+  private LogSegment active;
+  private long nextSegmentId;
+
+  private volatile boolean running;
+  private Thread appenderThread;
+
+  public TelemetrySegmentLog(
+      MeterRegistry meterRegistry,
+      @Value("${telemetry.segment-log.enabled:false}") boolean enabled,
+      @Value("${telemetry.segment-log.dir:data/telemetry-log}") String dir,
+      @Value("${telemetry.segment-log.segment-bytes:134217728}") int segmentBytes,
+      @Value("${telemetry.segment-log.block-bytes:65536}") int blockBytes,
+      @Value("${telemetry.segment-log.max-bytes:4294967296}") long maxBytes,
+      @Value("${telemetry.segment-log.buffer-capacity:65536}") int bufferCapacity) {
+    this.enabled = enabled;
+    this.dir = Paths.get(dir);
+    this.segmentBytes = Math.max(segmentBytes, 1 << 20);
+    this.blockBytes = Math.max(blockBytes, 4096);
+    this.maxBytes = maxBytes;
+    this.buffer = new ArrayBlockingQueue<>(Math.max(bufferCapacity, 1));
+    this.appended = meterRegistry.counter("telemetry.log.appended");
+    this.dropped = meterRegistry.counter("telemetry.log.dropped");
+    this.failed = meterRegistry.counter("telemetry.log.failed");
+    Gauge.builder("telemetry.log.buffer", buffer, ArrayBlockingQueue::size).register(meterRegistry);
+    Gauge.builder("telemetry.log.segments", segments, List::size).register(meterRegistry);
+    Gauge.builder("telemetry.log.bytes", this, TelemetrySegmentLog::totalBytes).register(meterRegistry);
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /** Queues a raw payload for the log; never blocks. */
+  public void append(String uavCode, byte[] payload) {
+    if (!running) {
+      return;
+    }
+    if (!buffer.offer(new Entry(uavCode, System.currentTimeMillis(), payload))) {
+      dropped.increment();
+    }
+  }
+
+  /**
+   * Visits up to {@code limit} records of {@code uavCode} received in {@code [fromMs, toMs)}, oldest
+   * segment first, and returns how many were visited. Payload slices are only valid during {@code
+   * visit}: retention may unmap a segment as soon as the read has moved past it.
+   */
+  public int read(String uavCode, long fromMs, long toMs, int limit, RecordVisitor visitor) {
+    byte[] code = uavCode.getBytes(StandardCharsets.UTF_8);
+    int[] visited = {0};
+    RecordVisitor limited =
+        (ts, payload) -> {
+          if (visited[0] >= limit) {
+            return false;
+          }
+          visited[0]++;
+          return visitor.visit(ts, payload) && visited[0] < limit;
+        };
+    for (LogSegment segment : segments) {
+      if (limit <= 0) {
+        break;
+      }
+      if (!segment.retain()) {
+        continue;
+      }
+      try {
+        if (!segment.read(uavCode, code, fromMs, toMs, limited)) {
+          break;
+        }
+      } finally {
+        segment.release();
+      }
+    }
+    return visited[0];
+  }
+
+  private long totalBytes() {
+    long total = 0;
+    for (LogSegment segment : segments) {
+      total += segment.sizeBytes();
+    }
+    return total;
+  }
+
+  private void appendLoop() {
+    List<Entry> batch = new ArrayList<>(DRAIN_BATCH);
+    while (running) {
+      try {
+        Entry entry = buffer.poll(100, TimeUnit.MILLISECONDS);
+        if (entry == null) {
+          continue;
+        }
+        batch.add(entry);
+        buffer.drainTo(batch, DRAIN_BATCH - 1);
+        write(batch);
+        batch.clear();
+      } catch (InterruptedException e) {
+        if (!running) {
+          break;
+        }
+      }
+    }
+    // shutting down: write what is buffered and seal, so the next start finds a complete index
+    while (buffer.drainTo(batch, DRAIN_BATCH) > 0) {
+      write(batch);
+      batch.clear();
+    }
+    if (active != null) {
+      try {
+        active.seal();
+      } catch (IOException e) {
+        log.warn("Sealing telemetry log segment {} failed", active.path(), e);
+      }
+    }
+  }
+
+  private void write(List<Entry> batch) {
+    for (Entry entry : batch) {
+      byte[] code = codes.computeIfAbsent(entry.uavCode(), c -> c.getBytes(StandardCharsets.UTF_8));
+      // a record that could never fit would roll a fresh segment for nothing
+      if (code.length > MAX_CODE_BYTES || (long) LogSegment.HEADER_BYTES + code.length + entry.payload().length > segmentBytes) {
+        failed.increment();
+        continue;
+      }
+      try {
+        if (active == null || !active.append(entry.uavCode(), code, entry.receivedAt(), entry.payload(), crc)) {
+          roll();
+          active.append(entry.uavCode(), code, entry.receivedAt(), entry.payload(), crc);
+        }
+        appended.increment();
+      } catch (IOException e) {
+        failed.increment();
+        log.warn("Telemetry log append failed, uavCode={}", entry.uavCode(), e);
+      }
+    }
+    if (active != null) {
+      active.publish();
+    }
+  }
+
+  private void roll() throws IOException {
+    if (active != null) {
+      active.seal();
+    }
+    Path file = dir.resolve(String.format("%020d", nextSegmentId++) + LogSegment.SUFFIX);
+    active = LogSegment.create(file, segmentBytes, blockBytes);
+    segments.add(active);
+    enforceRetention();
+  }
+
+  private void enforceRetention() {
+    long total = totalBytes();
+    while (total > maxBytes && segments.size() > 1) {
+      LogSegment oldest = segments.remove(0);
+      total -= oldest.sizeBytes();
+      oldest.retire();
+    }
+  }
+
+  /** Maps the segments left by previous runs; appends always go to a new segment. */
+  private void openExisting() throws IOException {
+    Files.createDirectories(dir);
+    List<Path> files;
+    try (Stream<Path> stream = Files.list(dir)) {
+      files = stream.filter(p -> p.getFileName().toString().endsWith(LogSegment.SUFFIX)).sorted().toList();
+    }
+    for (Path file : files) {
+      String name = file.getFileName().toString();
+      try {
+        long id = Long.parseLong(name.substring(0, name.length() - LogSegment.SUFFIX.length()));
+        segments.add(LogSegment.open(file, blockBytes));
+        nextSegmentId = Math.max(nextSegmentId, id + 1);
+      } catch (NumberFormatException | IOException e) {
+        log.warn("Skipping unreadable telemetry log segment {}", file, e);
+      }
+    }
+    enforceRetention();
+  }
+
+  @Override
+  public void start() {
+    if (!enabled) {
+      return;
+    }
+    try {
+      openExisting();
+    } catch (IOException e) {
+      log.error("Telemetry log directory {} is not usable; replay log disabled", dir.toAbsolutePath(), e);
+      return;
+    }
+    running = true;
+    appenderThread = new Thread(this::appendLoop, "telemetry-log");
+    appenderThread.setDaemon(true);
+    appenderThread.start();
+    log.info(
+        "Telemetry segment log started, dir={}, segments={}, segmentBytes={}, maxBytes={}",
+        dir.toAbsolutePath(), segments.size(), segmentBytes, maxBytes);
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    if (appenderThread != null) {
+      appenderThread.interrupt();
+      try {
+        appenderThread.join(TimeUnit.SECONDS.toMillis(5));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+}
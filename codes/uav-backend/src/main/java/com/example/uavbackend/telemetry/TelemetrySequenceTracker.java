@@ -0,0 +1,132 @@
+package com.example.uavbackend.telemetry;
+
+import com.example.uavbackend.config.ScheduledJobMonitor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops redelivered telemetry before it reaches the snapshot store and listeners, using one {@link
+ * SequenceWindow} per UAV over the {@code seq}/{@code msgId} headers. Frames without {@code seq}
+ * pass through unchanged.
+ *
+ * <p>MQTT QoS 1 is at-least-once, so after a broker or client reconnect the same frame can arrive
+ * twice and would otherwise be counted twice by the mission aggregator. Per-UAV loss and reorder
+ * figures are available from {@link #stats()}; fleet-wide totals are exported as {@code
+ * telemetry.seq.*} meters.
+ *
+ * <p>A window that saw no frame for {@code reset-after-ms} is dropped by a periodic sweep; the UAV's
+ * next frame would restart it anyway. Its counters are kept in the fleet-wide totals, but the UAV
+ * leaves {@link #stats()} until it sends again.
+ */
+@Slf4j
+@Component
+public class TelemetrySequenceTracker {
+  private final Map<String, SequenceWindow> windows = new ConcurrentHashMap<>();
+  private final boolean enabled;
+  private final int windowSize;
+  private final long resetAfterMs;
+  private final long maxGap;
+  private final long restartJump;
+  private final long sweepIntervalMs;
+  private final ScheduledJobMonitor jobMonitor;
+  private final Counter duplicates;
+  private final Counter evicted;
+  // counters of evicted windows, so the fleet-wide gauges do not fall back
+  private final AtomicLong evictedLost = new AtomicLong();
+  private final AtomicLong evictedReordered = new AtomicLong();
+  private final AtomicLong evictedResets = new AtomicLong();
+
+  public TelemetrySequenceTracker(
+      MeterRegistry meterRegistry,
+      ScheduledJobMonitor jobMonitor,
+      @Value("${telemetry.dedupe.enabled:true}") boolean enabled,
+      @Value("${telemetry.dedupe.window:512}") int window,
+      @Value("${telemetry.dedupe.reset-after-ms:10000}") long resetAfterMs,
+      @Value("${telemetry.dedupe.max-gap:10000}") long maxGap,
+      @Value("${telemetry.dedupe.restart-jump:32}") long restartJump,
+      @Value("${telemetry.dedupe.sweep-interval-ms:60000}") long sweepIntervalMs) {
+    this.enabled = enabled;
+    // power of two so a slot is seq & (size - 1), and whole 64-bit words in the bitmap
+    this.windowSize = Math.max(64, Integer.highestOneBit(Math.max(window - 1, 1)) << 1);
+    this.resetAfterMs = resetAfterMs;
+    this.maxGap = Math.max(maxGap, 1);
+    this.restartJump = Math.max(restartJump, 1);
+    this.sweepIntervalMs = sweepIntervalMs;
+    this.jobMonitor = jobMonitor;
+    this.duplicates = meterRegistry.counter("telemetry.seq.duplicates");
+    this.evicted = meterRegistry.counter("telemetry.seq.evicted");
+    Gauge.builder("telemetry.seq.lost", this, t -> t.total(SequenceWindow.Stats::lost, t.evictedLost)).register(meterRegistry);
+    Gauge.builder("telemetry.seq.reordered", this, t -> t.total(SequenceWindow.Stats::reordered, t.evictedReordered)).register(meterRegistry);
+    Gauge.builder("telemetry.seq.resets", this, t -> t.total(SequenceWindow.Stats::resets, t.evictedResets)).register(meterRegistry);
+    Gauge.builder("telemetry.seq.windows", windows, Map::size).register(meterRegistry);
+    log.info("Telemetry de-duplication {}, window {} frames", enabled ? "enabled" : "disabled", windowSize);
+  }
+
+  /** Called by the ingest thread; {@code false} means the frame was already processed. */
+  public boolean accept(TelemetryFrame frame) {
+    if (!enabled || frame.seq() < 0) {
+      return true;
+    }
+    SequenceWindow window = windows.get(frame.uavCode());
+    if (window == null) {
+      window = windows.computeIfAbsent(frame.uavCode(), k -> new SequenceWindow(windowSize, resetAfterMs, maxGap, restartJump));
+    }
+    if (window.accept(frame.seq(), frame.msgIdHash(), frame.receivedAt())) {
+      return true;
+    }
+    duplicates.increment();
+    return false;
+  }
+
+  /** Sequence statistics of every UAV that has sent a {@code seq}, keyed by UAV code. */
+  public Map<String, SequenceWindow.Stats> stats() {
+    Map<String, SequenceWindow.Stats> result = new LinkedHashMap<>(windows.size() * 2);
+    windows.forEach((uavCode, window) -> result.put(uavCode, window.stats()));
+    return result;
+  }
+
+  public SequenceWindow.Stats stats(String uavCode) {
+    SequenceWindow window = windows.get(uavCode);
+    return window == null ? null : window.stats();
+  }
+
+  @Scheduled(fixedDelayString = "${telemetry.dedupe.sweep-interval-ms:60000}")
+  public void sweep() {
+    if (enabled) {
+      jobMonitor.run("telemetry.seq.sweep", sweepIntervalMs, this::evictIdle);
+    }
+  }
+
+  private void evictIdle() {
+    long cutoff = System.currentTimeMillis() - resetAfterMs;
+    // a frame accepted between the check and the removal is counted by the dropped window only
+    windows.forEach(
+        (uavCode, window) -> {
+          if (window.lastSeenAt() < cutoff && windows.remove(uavCode, window)) {
+            SequenceWindow.Stats stats = window.stats();
+            evictedLost.addAndGet(stats.lost());
+            evictedReordered.addAndGet(stats.reordered());
+            evictedResets.addAndGet(stats.resets());
+            evicted.increment();
+          }
+        });
+  }
+
+  private double total(ToLongFunction<SequenceWindow.Stats> field, AtomicLong evictedTotal) {
+    long sum = evictedTotal.get();
+    for (SequenceWindow window : windows.values()) {
+      sum += field.applyAsLong(window.stats());
+    }
+    return sum;
+  }
+}
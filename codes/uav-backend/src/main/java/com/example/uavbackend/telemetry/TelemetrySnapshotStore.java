@@ -0,0 +1,67 @@
+package com.example.uavbackend.telemetry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-process store of the latest {@link TelemetryFrame} per UAV, written directly by the MQTT
+ * handler.
+ *
+ * <p>Entries older than {@code telemetry.snapshot.ttl-ms} are treated as absent, which mirrors the
+ * TTL the Redis keys used to have. Readers get a point-in-time copy so iteration never observes a
+ * half-updated fleet.
+ */
+@Component
+public class TelemetrySnapshotStore {
+  private final ConcurrentHashMap<String, TelemetryFrame> snapshots = new ConcurrentHashMap<>();
+
+  @Value("${telemetry.snapshot.ttl-ms:2000}")
+  private long ttlMs;
+
+  public void put(TelemetryFrame frame) {
+    snapshots.put(frame.uavCode(), frame);
+  }
+
+  /** Latest fresh frame of one UAV, or {@code null} when nothing arrived within the TTL. */
+  public TelemetryFrame get(String uavCode) {
+    TelemetryFrame frame = snapshots.get(uavCode);
+    return isFresh(frame, System.currentTimeMillis()) ? frame : null;
+  }
+
+  /** Copy of all fresh frames taken at a single instant. */
+  public List<TelemetryFrame> snapshot() {
+    long now = System.currentTimeMillis();
+    List<TelemetryFrame> result = new ArrayList<>(snapshots.size());
+    for (TelemetryFrame frame : snapshots.values()) {
+      if (isFresh(frame, now)) {
+        result.add(frame);
+      }
+    }
+    return Collections.unmodifiableList(result);
+  }
+
+  public int size() {
+    return snapshots.size();
+  }
+
+  @Scheduled(fixedDelayString = "${telemetry.snapshot.ttl-ms:2000}")
+  public void evictExpired() {
+    long now = System.currentTimeMillis();
+    // remove(key, value) keeps a frame that was replaced concurrently
+    snapshots.forEach(
+        (uavCode, frame) -> {
+          if (!isFresh(frame, now)) {
+            snapshots.remove(uavCode, frame);
+          }
+        });
+  }
+
+  private boolean isFresh(TelemetryFrame frame, long now) {
+    return frame != null && now - frame.receivedAt() <= ttlMs;
+  }
+}
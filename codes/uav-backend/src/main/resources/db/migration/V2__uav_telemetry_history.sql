@@ -0,0 +1,18 @@
+-- 遥测历史（异步批量写入），结构见 docs/数据库模型设计.md；原始报文可能不是合法 JSON，故 raw_message 使用 MEDIUMTEXT（最大 16 MiB）而非 JSON
+CREATE TABLE IF NOT EXISTS uav_telemetry (
+    id BIGINT UNSIGNED PRIMARY KEY AUTO_INCREMENT,
+    uav_id BIGINT UNSIGNED NOT NULL,
+    session_code CHAR(32) NULL,
+    reported_at DATETIME(3) NOT NULL,
+    battery_percent TINYINT UNSIGNED NULL,
+    range_km DECIMAL(8,2) NULL,
+    location_lat DECIMAL(9,6) NULL,
+    location_lng DECIMAL(9,6) NULL,
+    location_alt DECIMAL(8,2) NULL,
+    velocity_ms DECIMAL(8,2) NULL,
+    payload JSON NULL,
+    raw_message MEDIUMTEXT NULL,
+    created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    KEY idx_telemetry_uav_time (uav_id, reported_at)
+);
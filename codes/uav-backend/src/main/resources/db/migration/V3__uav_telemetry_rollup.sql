@@ -0,0 +1,40 @@
+-- 遥测分辨率汇总（1 秒 / 10 秒 / 1 分钟滚动窗口），由 TelemetryRollupWriter 批量写入；
+-- metric 为 alt/speed/battery 或遥测 data 中的指标编码，window_start 为窗口起点
+CREATE TABLE IF NOT EXISTS uav_telemetry_rollup_1s (
+    uav_code VARCHAR(64) NOT NULL,
+    metric VARCHAR(64) NOT NULL,
+    window_start DATETIME(3) NOT NULL,
+    sample_count INT UNSIGNED NOT NULL,
+    min_value DOUBLE NOT NULL,
+    max_value DOUBLE NOT NULL,
+    avg_value DOUBLE NOT NULL,
+    last_value DOUBLE NOT NULL,
+    PRIMARY KEY (uav_code, metric, window_start),
+    KEY idx_rollup_1s_window (window_start)
+);
+
+CREATE TABLE IF NOT EXISTS uav_telemetry_rollup_10s (
+    uav_code VARCHAR(64) NOT NULL,
+    metric VARCHAR(64) NOT NULL,
+    window_start DATETIME(3) NOT NULL,
+    sample_count INT UNSIGNED NOT NULL,
+    min_value DOUBLE NOT NULL,
+    max_value DOUBLE NOT NULL,
+    avg_value DOUBLE NOT NULL,
+    last_value DOUBLE NOT NULL,
+    PRIMARY KEY (uav_code, metric, window_start),
+    KEY idx_rollup_10s_window (window_start)
+);
+
+CREATE TABLE IF NOT EXISTS uav_telemetry_rollup_1m (
+    uav_code VARCHAR(64) NOT NULL,
+    metric VARCHAR(64) NOT NULL,
+    window_start DATETIME(3) NOT NULL,
+    sample_count INT UNSIGNED NOT NULL,
+    min_value DOUBLE NOT NULL,
+    max_value DOUBLE NOT NULL,
+    avg_value DOUBLE NOT NULL,
+    last_value DOUBLE NOT NULL,
+    PRIMARY KEY (uav_code, metric, window_start),
+    KEY idx_rollup_1m_window (window_start)
+);
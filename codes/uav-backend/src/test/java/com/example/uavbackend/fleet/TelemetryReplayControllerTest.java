@@ -0,0 +1,52 @@
+package com.example.uavbackend.fleet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import org.junit.jupiter.api.Test;
+
+class TelemetryReplayControllerTest {
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  @Test
+  void compactJsonIsCopiedVerbatim() throws Exception {
+    String payload = "{\"uavCode\":\"UAV-1\",\"lat\":30.5}";
+
+    assertThat(line(payload)).isEqualTo("{\"ts\":7,\"payload\":" + payload + "}\n");
+  }
+
+  @Test
+  void prettyPrintedJsonIsReencodedOnOneLine() throws Exception {
+    String payload = "{\n  \"uavCode\": \"UAV-1\",\r\n  \"data\": {\"pm25\": 35.7}\n}\n";
+
+    String line = line(payload);
+
+    assertThat(line).endsWith("\n");
+    assertThat(line.substring(0, line.length() - 1)).doesNotContain("\n", "\r");
+    JsonNode node = MAPPER.readTree(line);
+    assertThat(node.get("payload")).isEqualTo(MAPPER.readTree(payload));
+  }
+
+  @Test
+  void malformedJsonIsSentAsRaw() throws Exception {
+    String payload = "{\"a\":}";
+
+    JsonNode node = MAPPER.readTree(line(payload));
+
+    assertThat(node.has("payload")).isFalse();
+    assertThat(Base64.getDecoder().decode(node.get("raw").asText())).isEqualTo(payload.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String line(String payload) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ByteBuffer slice = ByteBuffer.wrap(payload.getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer();
+    TelemetryReplayController.writeLine(out, Channels.newChannel(out), 7, slice);
+    return out.toString(StandardCharsets.UTF_8);
+  }
+}
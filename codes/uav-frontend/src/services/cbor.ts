@@ -0,0 +1,117 @@
+/**
+ * Minimal CBOR (RFC 8949) decoder for the compact telemetry topic: integers, floats, strings,
+ * arrays, maps, booleans and null, definite or indefinite length. Tags are skipped.
+ */
+export function decodeCbor(bytes: Uint8Array): any {
+  const view = new DataView(bytes.buffer, bytes.byteOffset, bytes.byteLength);
+  const text = new TextDecoder();
+  let offset = 0;
+
+  const readLength = (info: number): number => {
+    if (info < 24) return info;
+    if (info === 24) return view.getUint8(offset++);
+    if (info === 25) {
+      const v = view.getUint16(offset);
+      offset += 2;
+      return v;
+    }
+    if (info === 26) {
+      const v = view.getUint32(offset);
+      offset += 4;
+      return v;
+    }
+    if (info === 27) {
+      const v = Number(view.getBigUint64(offset));
+      offset += 8;
+      return v;
+    }
+    if (info === 31) return -1;
+    throw new Error(`Unsupported CBOR length ${info}`);
+  };
+
+  const readHalf = (): number => {
+    const half = view.getUint16(offset);
+    offset += 2;
+    const exp = (half >> 10) & 0x1f;
+    const mant = half & 0x3ff;
+    const sign = half & 0x8000 ? -1 : 1;
+    if (exp === 0) return sign * mant * 2 ** -24;
+    if (exp === 31) return mant ? NaN : sign * Infinity;
+    return sign * (1 + mant / 1024) * 2 ** (exp - 15);
+  };
+
+  const read = (): any => {
+    const initial = view.getUint8(offset++);
+    const major = initial >> 5;
+    const info = initial & 0x1f;
+    switch (major) {
+      case 0:
+        return readLength(info);
+      case 1:
+        return -1 - readLength(info);
+      case 2:
+      case 3: {
+        const len = readLength(info);
+        if (len < 0) {
+          const parts: any[] = [];
+          while (view.getUint8(offset) !== 0xff) parts.push(read());
+          offset++;
+          return major === 3 ? parts.join('') : parts;
+        }
+        const chunk = bytes.subarray(offset, offset + len);
+        offset += len;
+        return major === 3 ? text.decode(chunk) : chunk;
+      }
+      case 4: {
+        const len = readLength(info);
+        const items: any[] = [];
+        if (len < 0) {
+          while (view.getUint8(offset) !== 0xff) items.push(read());
+          offset++;
+        } else {
+          for (let i = 0; i < len; i++) items.push(read());
+        }
+        return items;
+      }
+      case 5: {
+        const len = readLength(info);
+        const map: Record<string, any> = {};
+        if (len < 0) {
+          while (view.getUint8(offset) !== 0xff) {
+            const key = read();
+            map[key] = read();
+          }
+          offset++;
+        } else {
+          for (let i = 0; i < len; i++) {
+            const key = read();
+            map[key] = read();
+          }
+        }
+        return map;
+      }
+      case 6:
+        readLength(info);
+        return read();
+      default: {
+        if (info === 20) return false;
+        if (info === 21) return true;
+        if (info === 22 || info === 23) return null;
+        if (info === 25) return readHalf();
+        if (info === 26) {
+          const v = view.getFloat32(offset);
+          offset += 4;
+          return v;
+        }
+        if (info === 27) {
+          const v = view.getFloat64(offset);
+          offset += 8;
+          return v;
+        }
+        throw new Error(`Unsupported CBOR simple value ${info}`);
+      }
+    }
+  };
+
+  return read();
+}
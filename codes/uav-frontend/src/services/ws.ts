@@ -1,3 +1,5 @@
+import { decodeCbor } from './cbor';
+
 type TelemetryPayload = {
   uavCode?: string;
   batteryPercent?: number;
@@ -14,9 +16,39 @@ type TelemetrySocketOptions = {
   onDisconnect?: () => void;
   /**
    * Additional uavCodes to subscribe to under `/topic/uav-telemetry/{uavCode}`.
-   * The base topic `/topic/uav-telemetry` is always subscribed.
+   * The fleet-wide batch topic `/topic/uav-telemetry-batch` is always subscribed.
    */
   uavCodes?: string[];
+  /**
+   * Map bounds to receive telemetry for. When set, the socket subscribes to the per-session
+   * `/user/queue/uav-telemetry-viewport` instead of the fleet-wide batch topic.
+   */
+  viewport?: TelemetryViewport;
+  /**
+   * `cbor` subscribes to the binary `/topic/uav-telemetry-compact` instead of the JSON batch topic
+   * (about a third of the bandwidth). It carries only the decoded fields: uavCode, status,
+   * missionId, lat, lng, alt, battery, speed, data and ts.
+   */
+  encoding?: 'json' | 'cbor';
+  /** When set, also subscribes to `/topic/uav-status` (ONLINE/OFFLINE transitions, one array per tick). */
+  onStatus?: (events: UavStatusEvent[]) => void;
+};
+
+export type UavStatusEvent = {
+  uavCode: string;
+  status: 'ONLINE' | 'OFFLINE';
+  /** Receive time of the UAV's last telemetry frame, epoch ms. */
+  lastSeen: number;
+  ts: number;
+};
+
+const STATUS_TOPIC = '/topic/uav-status';
+
+export type TelemetryViewport = {
+  minLat: number;
+  minLng: number;
+  maxLat: number;
+  maxLng: number;
 };
 
 type Subscription = {
@@ -26,11 +58,59 @@ type Subscription = {
 
 export type TelemetryStompClient = {
   deactivate: () => void;
+  /** Updates the viewport filter; only effective for clients created with a `viewport`. */
+  setViewport: (viewport: TelemetryViewport) => void;
 };
 
 const WS_URL = 'ws://localhost:8080/ws/uav-telemetry';
 const RECONNECT_DELAY = 4000;
 
+/** Splits a binary STOMP frame into its text header block and raw body. */
+const parseBinaryStompFrame = (data: ArrayBuffer) => {
+  const bytes = new Uint8Array(data);
+  let headerEnd = -1;
+  for (let i = 0; i + 1 < bytes.length; i++) {
+    if (bytes[i] === 10 && bytes[i + 1] === 10) {
+      headerEnd = i;
+      break;
+    }
+  }
+  if (headerEnd < 0) return { ...parseStompFrame(new TextDecoder().decode(bytes)), bytes: undefined };
+  const head = parseStompFrame(new TextDecoder().decode(bytes.subarray(0, headerEnd + 1)));
+  const bodyEnd = bytes[bytes.length - 1] === 0 ? bytes.length - 1 : bytes.length;
+  return { ...head, bytes: bytes.subarray(headerEnd + 2, bodyEnd) };
+};
+
+/**
+ * Expands one compact CBOR message into the same payload shape the JSON topics deliver. Slot
+ * numbers are only meaningful within the message: `k` names every slot it uses, since messages may
+ * come from different backend nodes with different numbering.
+ */
+const expandCompact = (message: any): TelemetryPayload[] => {
+  const compactKeys: Record<string, string> = message.k || {};
+  const t = message.t as number;
+  return (message.f || []).map((f: any[]) => {
+    const [uavCode, dt, status, missionId, lat, lng, alt, battery, speed, metrics] = f;
+    const data: Record<string, number> = {};
+    Object.entries(metrics || {}).forEach(([slot, value]) => {
+      const key = compactKeys[slot];
+      if (key) data[key] = value as number;
+    });
+    return {
+      uavCode,
+      ts: t + dt,
+      status: status ?? undefined,
+      missionId: missionId ?? undefined,
+      lat: lat == null ? undefined : lat / 1e6,
+      lng: lng == null ? undefined : lng / 1e6,
+      alt: alt == null ? undefined : alt / 10,
+      battery: battery ?? undefined,
+      speed: speed == null ? undefined : speed / 10,
+      data
+    };
+  });
+};
+
 const parseStompFrame = (frame: string) => {
   const nullIndex = frame.indexOf('\0');
   const trimmed = nullIndex >= 0 ? frame.substring(0, nullIndex) : frame;
@@ -63,6 +143,13 @@ class StompWebSocketClient {
     this.startConnection();
   }
 
+  setViewport(viewport: TelemetryViewport) {
+    this.options.viewport = viewport;
+    if (this.connected) {
+      this.sendViewport();
+    }
+  }
+
   deactivate() {
     this.shouldReconnect = false;
     clearTimeout(this.reconnectTimer);
@@ -72,6 +159,7 @@ class StompWebSocketClient {
   private startConnection() {
     console.info('[WS] connecting to', WS_URL);
     this.socket = new WebSocket(WS_URL);
+    this.socket.binaryType = 'arraybuffer';
 
     this.socket.onopen = () => {
       console.info('[WS] socket opened, sending CONNECT frame');
@@ -82,6 +170,10 @@ class StompWebSocketClient {
     };
 
     this.socket.onmessage = event => {
+      if (event.data instanceof ArrayBuffer) {
+        this.handleBinaryFrame(event.data);
+        return;
+      }
       const data = event.data as string;
       this.handleStompFrame(data);
     };
@@ -108,6 +200,21 @@ class StompWebSocketClient {
     }
   }
 
+  private handleBinaryFrame(data: ArrayBuffer) {
+    const { command, headers, body, bytes } = parseBinaryStompFrame(data);
+    if (command !== 'MESSAGE' || !bytes) {
+      this.handleStompFrame(new TextDecoder().decode(data));
+      return;
+    }
+    try {
+      const payloads = expandCompact(decodeCbor(bytes));
+      console.debug('[WS] compact message received', headers.destination, payloads.length);
+      payloads.forEach(payload => this.options.onMessage(payload));
+    } catch (e) {
+      console.warn('[WS] failed to decode binary message', headers.destination, body, e);
+    }
+  }
+
   private handleStompFrame(frame: string) {
     const { command, headers, body } = parseStompFrame(frame);
 
@@ -116,6 +223,7 @@ class StompWebSocketClient {
       console.info('[WS] STOMP connected');
       this.options.onConnect?.();
       this.resubscribe();
+      this.sendViewport();
       return;
     }
 
@@ -123,7 +231,16 @@ class StompWebSocketClient {
       try {
         const payload = JSON.parse(body || '{}');
         console.debug('[WS] message received', headers.destination, payload);
-        this.options.onMessage(payload);
+        if (headers.destination === STATUS_TOPIC) {
+          this.options.onStatus?.(payload);
+          return;
+        }
+        // the batch topic carries every changed UAV of one push tick as an array
+        if (Array.isArray(payload)) {
+          payload.forEach(item => this.options.onMessage(item));
+        } else {
+          this.options.onMessage(payload);
+        }
       } catch (e) {
         console.warn('[WS] failed to parse message body', body, e);
       }
@@ -136,8 +253,13 @@ class StompWebSocketClient {
   }
 
   private resubscribe() {
-    const topics = new Set<string>(['/topic/uav-telemetry']);
+    const fleetTopic =
+      this.options.encoding === 'cbor' ? '/topic/uav-telemetry-compact' : '/topic/uav-telemetry-batch';
+    const topics = new Set<string>([
+      this.options.viewport ? '/user/queue/uav-telemetry-viewport' : fleetTopic
+    ]);
     (this.options.uavCodes || []).forEach(code => topics.add(`/topic/uav-telemetry/${code}`));
+    if (this.options.onStatus) topics.add(STATUS_TOPIC);
 
     this.subscriptions = Array.from(topics).map((destination, index) => ({
       id: `sub-${index}`,
@@ -153,12 +275,21 @@ class StompWebSocketClient {
     );
   }
 
-  private sendStompFrame(command: string, headers: Record<string, string>) {
+  private sendViewport() {
+    if (!this.options.viewport) return;
+    this.sendStompFrame(
+      'SEND',
+      { destination: '/app/telemetry/viewport', 'content-type': 'application/json' },
+      JSON.stringify(this.options.viewport)
+    );
+  }
+
+  private sendStompFrame(command: string, headers: Record<string, string>, body = '') {
     if (!this.socket || this.socket.readyState !== WebSocket.OPEN) return;
 
     const lines = [command];
     Object.entries(headers).forEach(([key, value]) => lines.push(`${key}:${value}`));
-    lines.push('', '');
+    lines.push('', body);
     const frame = `${lines.join('\n')}\0`;
     this.socket.send(frame);
   }